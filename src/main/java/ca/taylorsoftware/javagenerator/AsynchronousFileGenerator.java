@@ -0,0 +1,131 @@
+package ca.taylorsoftware.javagenerator;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+
+
+/**
+ * Generates the content of a file as read-only ByteBuffer chunks, read with an AsynchronousFileChannel
+ * rather than by a background thread blocked in I/O.
+ * <br>
+ * Reads are issued one at a time and stop while 'maxQueueSize' chunks are waiting for the foreground thread.
+ * Generators given the same ExecutorService share its threads for their completion handlers,
+ * so many files can be read at once without a thread each.
+ * <br>
+ * The file is closed once it has been read to the end, by 'close()', or once this generator is unreachable.
+ *
+ * @author Warren Taylor
+ * Created: 2026-10-19
+ * Copyright (c) 2026 Warren Taylor.  All right reserved.
+ */
+public class AsynchronousFileGenerator extends PushGenerator<ByteBuffer> {
+
+    /** The default maximum number of chunks read ahead of the foreground thread. */
+    private static final int DEFAULT_MAX_QUEUE_SIZE = 16;
+
+    /** The default number of bytes in each chunk. */
+    private static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+    private final AsynchronousFileChannel channel;
+    private final int chunkSize;
+
+    /**
+     * Where the next read starts. Only the side that owns the source, either a completion handler
+     * or 'resume()', touches it; ownership is handed over through 'mayContinue()'.
+     */
+    private long position = 0;
+
+    private final CompletionHandler<Integer, ByteBuffer> readHandler = new CompletionHandler<Integer, ByteBuffer>() {
+        @Override
+        public void completed(Integer count, ByteBuffer buffer) {
+            if (count < 0) {
+                complete();
+                closeChannel(channel);
+                return;
+            }
+
+            position += count;
+            // Go through Buffer so that this also runs on Java 8, where flip() returns Buffer.
+            ((Buffer) buffer).flip();
+            yieldReturn(buffer.asReadOnlyBuffer());
+            if (mayContinue()) {
+                read();
+            }
+        }
+
+        @Override
+        public void failed(Throwable ex, ByteBuffer buffer) {
+            // Includes the AsynchronousCloseException from 'close()', which 'hasNext()' no longer reports.
+            fail(ex);
+            closeChannel(channel);
+        }
+    };
+
+
+    /**
+     * Read 'path' in 64KB chunks using the default thread pool.
+     */
+    public AsynchronousFileGenerator(Path path) throws IOException {
+        this(path, DEFAULT_CHUNK_SIZE, DEFAULT_MAX_QUEUE_SIZE, null);
+    }
+
+    /**
+     * @param executor runs the completion handlers, or null for the default thread pool.
+     */
+    public AsynchronousFileGenerator(Path path, int chunkSize, int maxQueueSize, ExecutorService executor) throws IOException {
+        super(maxQueueSize);
+
+        if (chunkSize < 1) {
+            String msg = "AsynchronousFileGenerator(chunkSize): chunkSize must be greater than or equal to 1!";
+            throw new IllegalArgumentException(msg);
+        }
+
+        this.chunkSize = chunkSize;
+        channel = AsynchronousFileChannel.open(path, Collections.singleton(StandardOpenOption.READ), executor);
+
+        // Close the file should this generator be let go of without being closed.
+        AsynchronousFileChannel opened = channel;
+        GeneratorLeakDetector.track(this, () -> closeChannel(opened));
+    }
+
+
+    @Override
+    public void close() {
+        super.close();
+        closeChannel(channel);
+    }
+
+
+    @Override
+    protected void resume() {
+        read();
+    }
+
+
+    private void read() {
+        ByteBuffer buffer = ByteBuffer.allocate(chunkSize);
+        try {
+            channel.read(buffer, position, buffer, readHandler);
+        } catch (RuntimeException ex) {
+            fail(ex);
+            closeChannel(channel);
+        }
+    }
+
+
+    private static void closeChannel(AsynchronousFileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException ex) {
+            // Nothing more can be done with the file.
+        }
+    }
+
+}
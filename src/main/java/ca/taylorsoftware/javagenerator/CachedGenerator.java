@@ -0,0 +1,423 @@
+package ca.taylorsoftware.javagenerator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Supplier;
+
+
+/**
+ * Makes a single-shot generator re-iterable: the sequence is recorded as it is first consumed,
+ * and every later call to 'iterator()' is served from the recording.
+ * Any number of iterators may be in use at once, including while the sequence is still being produced;
+ * whichever iterator is furthest ahead pulls the next element from the generator for all of them.
+ * <br>
+ * At most 'maxCachedElements' are kept in memory. Beyond that, either:
+ * <ul>
+ * <li>without a Serializer, recording stops and the rest of the sequence is recomputed:
+ *     an iterator that gets past the recorded elements creates a new generator
+ *     and skips over the elements it has already returned, or</li>
+ * <li>with a Serializer, the rest of the sequence is spilled to a temporary file
+ *     which each iterator reads back on its own.</li>
+ * </ul>
+ * 'close()' releases the recording, ends any iterators still in use and closes the generators they were recomputing,
+ * so breaking out of a for-each loop leaves nothing running once the CachedGenerator is closed.
+ * A CachedGenerator that simply becomes unreachable is released as well, see GeneratorLeakDetector.
+ *
+ * @author Warren Taylor
+ * Created: 2026-10-19
+ * Copyright (c) 2026 Warren Taylor.  All right reserved.
+ *
+ * @param <T>
+ */
+public class CachedGenerator<T> implements AutoCloseable, Iterable<T> {
+
+    /** Creates a new generator, each time one is needed. */
+    private final Supplier<? extends Iterable<T>> source;
+
+    private final int maxCachedElements;
+
+    private final Recording<T> recording;
+
+    private volatile boolean isClosed = false;
+
+
+    /**
+     * Recompute whatever does not fit within 'maxCachedElements'.
+     * @param source creates the generator; called again for each iterator that needs to recompute.
+     */
+    public CachedGenerator(Supplier<? extends Iterable<T>> source, int maxCachedElements) {
+        this(source, maxCachedElements, null, null);
+    }
+
+    /**
+     * Spill whatever does not fit within 'maxCachedElements' to a temporary file in 'spillDirectory'.
+     * @param serializer the codec used to spill elements, or null to recompute them instead.
+     * @param spillDirectory where to create the temporary file, or null for the default temporary-file directory.
+     */
+    public CachedGenerator(Supplier<? extends Iterable<T>> source, int maxCachedElements,
+            Serializer<T> serializer, Path spillDirectory) {
+        if (maxCachedElements < 0) {
+            String msg = "CachedGenerator(maxCachedElements): maxCachedElements must not be negative!";
+            throw new IllegalArgumentException(msg);
+        }
+
+        this.source = source;
+        this.maxCachedElements = maxCachedElements;
+        recording = new Recording<T>(serializer, spillDirectory);
+        // The Recording must not refer back to this CachedGenerator, or it would never become unreachable.
+        GeneratorLeakDetector.track(this, recording::release);
+    }
+
+
+    @Override
+    public void close() {
+        if (!isClosed) {
+            isClosed = true;
+            recording.release();
+        }
+    }
+
+
+    @Override
+    public Iterator<T> iterator() {
+        if (isClosed) {
+            return Collections.emptyIterator();
+        }
+        return new Reader();
+    }
+
+
+    /** @return the number of elements recorded so far, in memory or spilled. */
+    public long recordedCount() {
+        synchronized (recording) {
+            return recording.recordedCount;
+        }
+    }
+
+
+    /** @return has the whole sequence been recorded. */
+    public boolean isComplete() {
+        synchronized (recording) {
+            return recording.isComplete;
+        }
+    }
+
+
+    private static void closeIfCloseable(Object obj) {
+        if (obj instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) obj).close();
+            } catch (Exception ex) {
+                // Nothing more can be done with it.
+            }
+        }
+    }
+
+
+
+    /**
+     * The state shared by all iterators. It is guarded by its own monitor;
+     * pulling from 'upstream' is serialized by 'pullLock' so that iterators reading recorded
+     * elements are not held up while the next element is being produced.
+     */
+    private static final class Recording<T> {
+        final Serializer<T> serializer;
+        final Path spillDirectory;
+        final Object pullLock = new Object();
+
+        /** The first elements of the sequence. */
+        final List<T> elements = new ArrayList<>();
+
+        /** The generator being recorded, and its iterator. */
+        Iterable<T> upstreamSource;
+        Iterator<T> upstream;
+
+        /** The generators that iterators are recomputing on their own, closed by 'release()'. */
+        final Set<Iterable<T>> ownSources = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        /** The number of elements recorded, in 'elements' and then in the spill file. */
+        long recordedCount = 0;
+
+        /** The number of spilled elements known to be in the file rather than in 'spillOut's buffer. */
+        long flushedCount = 0;
+
+        Path spillPath;
+        DataOutputStream spillOut;
+
+        /** The upstream generator has finished and everything it generated has been recorded. */
+        boolean isComplete = false;
+
+        /** Elements past 'elements' are not recorded and must be recomputed. */
+        boolean isTruncated = false;
+
+        boolean isReleased = false;
+
+        Recording(Serializer<T> serializer, Path spillDirectory) {
+            this.serializer = serializer;
+            this.spillDirectory = spillDirectory;
+        }
+
+        synchronized void release() {
+            if (isReleased) {
+                return;
+            }
+            isReleased = true;
+            elements.clear();
+            closeIfCloseable(upstreamSource);
+            upstreamSource = null;
+            upstream = null;
+            for (Iterable<T> ownSource : ownSources) {
+                closeIfCloseable(ownSource);
+            }
+            ownSources.clear();
+
+            if (spillPath != null) {
+                try {
+                    spillOut.close();
+                } catch (IOException ex) {
+                    // Deleting the file is all that matters now.
+                }
+                try {
+                    Files.deleteIfExists(spillPath);
+                } catch (IOException ex) {
+                    // Nothing more can be done with the file.
+                }
+            }
+        }
+    }
+
+
+
+    /**
+     * One pass over the sequence.
+     */
+    private final class Reader implements Iterator<T> {
+        /** The index of the next element to return. */
+        private long index = 0;
+
+        private T nextValue;
+        private boolean hasNextValue = false;
+
+        /** Reads back spilled elements, in order. */
+        private DataInputStream spillIn;
+
+        /** The generator this iterator is recomputing on its own, once past a truncated recording. */
+        private Iterable<T> ownSource;
+        private Iterator<T> ownUpstream;
+
+        @Override
+        public boolean hasNext() {
+            if (!hasNextValue && !isClosed) {
+                hasNextValue = fetch();
+                if (!hasNextValue) {
+                    finish();
+                }
+            }
+            if (isClosed) {
+                finish();
+                return false;
+            }
+            return hasNextValue;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            hasNextValue = false;
+            ++index;
+            T value = nextValue;
+            nextValue = null;
+            return value;
+        }
+
+        /** @return has 'nextValue' been set to the element at 'index'. */
+        private boolean fetch() {
+            while (ownUpstream == null) {
+                boolean isSpilled;
+                boolean isRecomputing;
+                synchronized (recording) {
+                    if (recording.isReleased) {
+                        return false;
+                    }
+                    if (index < recording.elements.size()) {
+                        nextValue = recording.elements.get((int) index);
+                        return true;
+                    }
+                    isSpilled = index < recording.recordedCount;
+                    if (isSpilled && index >= recording.flushedCount) {
+                        flushSpill();
+                    }
+                    if (!isSpilled && recording.isComplete) {
+                        return false;
+                    }
+                    isRecomputing = !isSpilled && recording.isTruncated;
+                }
+
+                if (isSpilled) {
+                    return readSpilled();
+                }
+                if (isRecomputing) {
+                    recompute();
+                } else if (pull()) {
+                    return true;
+                }
+            }
+
+            // Recomputing past the end of a truncated recording.
+            if (ownUpstream.hasNext()) {
+                nextValue = ownUpstream.next();
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Pull the next element from the upstream generator, unless another iterator already has.
+         * @return has 'nextValue' been set without it being recorded.
+         */
+        private boolean pull() {
+            synchronized (recording.pullLock) {
+                Iterator<T> upstream;
+                synchronized (recording) {
+                    if (recording.isReleased || recording.isComplete || recording.isTruncated
+                            || index < recording.recordedCount) {
+                        // Another iterator got here first, go round again.
+                        return false;
+                    }
+                    if (recording.upstream == null) {
+                        recording.upstreamSource = source.get();
+                        recording.upstream = recording.upstreamSource.iterator();
+                    }
+                    upstream = recording.upstream;
+                }
+
+                // The slow part, and the reason for 'pullLock', is done outside of the recording's lock.
+                boolean isAvailable = upstream.hasNext();
+                T value = isAvailable ? upstream.next() : null;
+
+                synchronized (recording) {
+                    if (recording.isReleased) {
+                        return false;
+                    }
+                    if (!isAvailable) {
+                        recording.isComplete = true;
+                        closeIfCloseable(recording.upstreamSource);
+                        recording.upstreamSource = null;
+                        recording.upstream = null;
+                    } else if (recording.recordedCount < maxCachedElements) {
+                        recording.elements.add(value);
+                        ++recording.recordedCount;
+                    } else if (recording.serializer != null) {
+                        spill(value);
+                    } else {
+                        // Stop recording. This iterator carries on with the upstream generator on its own.
+                        recording.isTruncated = true;
+                        ownSource = recording.upstreamSource;
+                        ownUpstream = upstream;
+                        recording.ownSources.add(ownSource);
+                        recording.upstreamSource = null;
+                        recording.upstream = null;
+                        nextValue = value;
+                        return true;
+                    }
+                }
+                return false;
+            }
+        }
+
+        /** Create a new generator and skip over the elements already returned. */
+        private void recompute() {
+            Iterable<T> created = source.get();
+            synchronized (recording) {
+                if (recording.isReleased) {
+                    // Closed while the generator was being created.
+                    closeIfCloseable(created);
+                    return;
+                }
+                recording.ownSources.add(created);
+            }
+            ownSource = created;
+            ownUpstream = ownSource.iterator();
+            if (ownSource instanceof ThreadedGenerator) {
+                ((ThreadedGenerator<?>) ownSource).skip(index);
+            } else if (ownSource instanceof ThreadSafeGenerator) {
+                ((ThreadSafeGenerator<?>) ownSource).skip(index);
+            } else {
+                for (long skipped = 0; skipped < index && ownUpstream.hasNext(); ++skipped) {
+                    ownUpstream.next();
+                }
+            }
+        }
+
+        /** Called while holding the recording's lock. */
+        private void spill(T value) {
+            try {
+                if (recording.spillPath == null) {
+                    recording.spillPath = Files.createTempFile(recording.spillDirectory, "JavaGenerator-", ".cache");
+                    recording.spillOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(recording.spillPath)));
+                }
+                recording.serializer.serialize(value, recording.spillOut);
+                ++recording.recordedCount;
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        /** Called while holding the recording's lock. */
+        private void flushSpill() {
+            try {
+                recording.spillOut.flush();
+                recording.flushedCount = recording.recordedCount;
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        private boolean readSpilled() {
+            try {
+                if (spillIn == null) {
+                    spillIn = new DataInputStream(new BufferedInputStream(Files.newInputStream(recording.spillPath)));
+                }
+                nextValue = recording.serializer.deserialize(spillIn);
+                return true;
+            } catch (IOException ex) {
+                if (isClosed) {
+                    // The file was deleted by 'close()'.
+                    return false;
+                }
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        private void finish() {
+            if (ownSource != null) {
+                synchronized (recording) {
+                    recording.ownSources.remove(ownSource);
+                }
+                closeIfCloseable(ownSource);
+            }
+            ownSource = null;
+            ownUpstream = null;
+            if (spillIn != null) {
+                closeIfCloseable(spillIn);
+                spillIn = null;
+            }
+        }
+    }
+
+}
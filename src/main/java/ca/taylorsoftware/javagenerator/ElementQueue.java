@@ -0,0 +1,33 @@
+package ca.taylorsoftware.javagenerator;
+
+
+/**
+ * The Producer/Consumer queue between the background thread and the foreground thread.
+ * Implementations are not thread safe; callers synchronize on the queue itself.
+ *
+ * @author Warren Taylor
+ * Created: 2026-10-19
+ * Copyright (c) 2026 Warren Taylor.  All right reserved.
+ *
+ * @param <T>
+ */
+interface ElementQueue<T> {
+
+    int size();
+
+    boolean isEmpty();
+
+    /** Should the producer wait for room before adding another element, given 'limit' elements are allowed. */
+    boolean isFull(int limit);
+
+    void addLast(T item);
+
+    T removeFirst();
+
+    /** Remove the first element without needing its value. */
+    void discardFirst();
+
+    /** Discard every element and release any resources held by the queue. */
+    void clear();
+
+}
@@ -0,0 +1,184 @@
+package ca.taylorsoftware.javagenerator;
+
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.SecureDirectoryStream;
+import java.nio.file.attribute.BasicFileAttributeView;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiPredicate;
+
+
+/**
+ * Generates every file and directory under a root directory, together with its attributes.
+ * <br>
+ * Each directory is read once, by its own task, so several directories are read at the same time.
+ * A directory is only opened once its task starts, and no more tasks run at once than the pool's
+ * parallelism (see RecursiveGenerator), so however wide the tree only about that many directories are open.
+ * The attributes of each entry are read exactly once (relative to the open directory where the
+ * platform allows it) and both the filter and 'enterDirectory(...)' are applied on the background
+ * tasks, so entries that are filtered out never reach the foreground thread.
+ * Symbolic links are reported but never followed.
+ * <br>
+ * With Ordering.DEPTH_FIRST the entries are generated in the same order as Files.walk(...).
+ *
+ * @author Warren Taylor
+ * Created: 2026-10-19
+ * Copyright (c) 2026 Warren Taylor.  All right reserved.
+ */
+public class FileTreeGenerator extends RecursiveGenerator<FileTreeGenerator.Entry> {
+    /** The default maximum number of buffered entries. */
+    private static final int DEFAULT_MAX_QUEUE_SIZE = 1024;
+
+    private static final LinkOption[] NOFOLLOW_LINKS = {LinkOption.NOFOLLOW_LINKS};
+
+    private final Path root;
+
+    /** Which entries to generate. Directories are entered whether or not they are generated. */
+    private final BiPredicate<Path, BasicFileAttributes> filter;
+
+
+    public FileTreeGenerator(Path root) {
+        this(root, (path, attributes) -> true);
+    }
+
+    /**
+     * Only generate entries whose path, relative to 'root', matches 'glob'. For example "**&#47;*.java".
+     */
+    public FileTreeGenerator(Path root, String glob) {
+        this(root, globFilter(root, glob));
+    }
+
+    public FileTreeGenerator(Path root, BiPredicate<Path, BasicFileAttributes> filter) {
+        this(root, filter, DEFAULT_MAX_QUEUE_SIZE, Ordering.UNORDERED, ForkJoinPool.commonPool());
+    }
+
+    public FileTreeGenerator(Path root, BiPredicate<Path, BasicFileAttributes> filter,
+            int maxQueueSize, Ordering ordering, ForkJoinPool pool) {
+        super(maxQueueSize, ordering, pool);
+        this.root = root;
+        this.filter = filter;
+    }
+
+
+    private static BiPredicate<Path, BasicFileAttributes> globFilter(Path root, String glob) {
+        PathMatcher matcher = root.getFileSystem().getPathMatcher("glob:" + glob);
+        return (path, attributes) -> matcher.matches(root.relativize(path));
+    }
+
+
+    /**
+     * The descendant implementation of this method may prune the traversal.
+     * <br>
+     * <b>Important! This method runs on the ForkJoinPool, possibly at the same time for several directories.</b>
+     * @return true to generate the contents of 'dir'.
+     */
+    protected boolean enterDirectory(Path dir, BasicFileAttributes attributes) {
+        return true;
+    }
+
+
+    /**
+     * Called when a directory cannot be read or an entry's attributes cannot be read.
+     * The entry is skipped. The default implementation does nothing.
+     * Any other failure ends the traversal and is thrown by 'hasNext()', see RecursiveGenerator.
+     * <br>
+     * <b>Important! This method runs on the ForkJoinPool.</b>
+     */
+    protected void visitFailed(Path path, IOException ex) {
+    }
+
+
+    @Override
+    protected void generator() throws InterruptedException {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(root, BasicFileAttributes.class, NOFOLLOW_LINKS);
+        } catch (IOException ex) {
+            visitFailed(root, ex);
+            return;
+        }
+        visit(root, attributes);
+    }
+
+
+    private void visit(Path path, BasicFileAttributes attributes) throws InterruptedException {
+        if (filter.test(path, attributes)) {
+            yieldReturn(new Entry(path, attributes));
+        }
+        if (attributes.isDirectory() && enterDirectory(path, attributes)) {
+            fork(() -> readDirectory(path));
+        }
+    }
+
+
+    private void readDirectory(Path dir) throws InterruptedException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            SecureDirectoryStream<Path> secureStream = null;
+            if (stream instanceof SecureDirectoryStream) {
+                secureStream = (SecureDirectoryStream<Path>) stream;
+            }
+
+            for (Path path : stream) {
+                if (!canKeepGoing()) {
+                    throw new InterruptedException();
+                }
+
+                BasicFileAttributes attributes;
+                try {
+                    if (secureStream != null) {
+                        // Read the attributes relative to the open directory rather than resolving the whole path again.
+                        attributes = secureStream
+                                .getFileAttributeView(path.getFileName(), BasicFileAttributeView.class, NOFOLLOW_LINKS)
+                                .readAttributes();
+                    } else {
+                        attributes = Files.readAttributes(path, BasicFileAttributes.class, NOFOLLOW_LINKS);
+                    }
+                } catch (IOException ex) {
+                    visitFailed(path, ex);
+                    continue;
+                }
+
+                visit(path, attributes);
+            }
+        } catch (IOException ex) {
+            visitFailed(dir, ex);
+        } catch (DirectoryIteratorException ex) {
+            visitFailed(dir, ex.getCause());
+        }
+    }
+
+
+
+    /**
+     * A generated file or directory and the attributes read while generating it.
+     */
+    public static final class Entry {
+        private final Path path;
+        private final BasicFileAttributes attributes;
+
+        Entry(Path path, BasicFileAttributes attributes) {
+            this.path = path;
+            this.attributes = attributes;
+        }
+
+        public Path getPath() {
+            return path;
+        }
+
+        public BasicFileAttributes getAttributes() {
+            return attributes;
+        }
+
+        @Override
+        public String toString() {
+            return path.toString();
+        }
+    }
+
+}
@@ -0,0 +1,327 @@
+package ca.taylorsoftware.javagenerator;
+
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.NoSuchElementException;
+
+
+/**
+ * A generator whose HandoffPolicy can be changed while it is being iterated,
+ * without restarting 'generator()'. For example lockstep while the foreground thread
+ * picks through the first few elements, then run-ahead with a large queue to drain the rest.
+ * <br>
+ * Both policies are built on the one queue: run-ahead bounds its size,
+ * lockstep additionally holds the background thread back until the queue is empty
+ * and the foreground thread is waiting in 'hasNext()'.
+ * Switching to lockstep does not discard what has already been queued;
+ * the background thread pauses once it has handed over the element in hand.
+ * <br>
+ * The background thread starts when the foreground thread first calls 'hasNext()'.
+ * While the policy may be lockstep, 'generator()' must still be written in a thread safe manner
+ * since it may be switched to run-ahead at any time.
+ *
+ * @author Warren Taylor
+ * Created: 2026-10-19
+ * Copyright (c) 2026 Warren Taylor.  All right reserved.
+ *
+ * @param <T>
+ */
+public abstract class Generator<T> implements AutoCloseable, Iterable<T>, Iterator<T>, Runnable {
+
+    /** The current HandoffPolicy. */
+    private volatile HandoffPolicy handoffPolicy;
+
+    /** To reduce complexity carry the value from when 'hasNext()' is called to when 'next()' is called. */
+    private T nextForegroundValue;
+
+    /** The Producer/Consumer queue. */
+    private final Deque<T> yieldReturnQueue = new LinkedList<T>();
+
+    /** The background thread. */
+    private final Thread thread;
+
+    private boolean isStarted = false;
+
+    /** Is the foreground thread waiting in 'hasNext()' for the queue to be added to. */
+    private boolean isConsumerWaiting = false;
+
+    /** The number of elements still to be discarded by 'yieldReturn(...)', see 'skip(n)'. */
+    private long pendingSkip = 0;
+
+    /** Used to determine if the background thread needs to quit. */
+    private volatile boolean isThreadCancelled = false;
+
+    /** Is foreground process cancelled. */
+    private volatile boolean isClosed = false;
+
+    /** Counts, and may report, this generator if it is let go of without being closed. */
+    private final GeneratorLeakDetector.Tracker tracker = new GeneratorLeakDetector.Tracker(this);
+
+
+    public Generator() {
+        this(HandoffPolicy.lockstep());
+    }
+
+    public Generator(HandoffPolicy handoffPolicy) {
+        if (handoffPolicy == null) {
+            String msg = "Generator(handoffPolicy): handoffPolicy must not be null!";
+            throw new IllegalArgumentException(msg);
+        }
+
+        this.handoffPolicy = handoffPolicy;
+        thread = GeneratorLeakDetector.newBackgroundThread(this);
+    }
+
+
+    public HandoffPolicy getHandoffPolicy() {
+        return handoffPolicy;
+    }
+
+
+    /**
+     * Switch to 'handoffPolicy', taking effect immediately.
+     */
+    public void setHandoffPolicy(HandoffPolicy handoffPolicy) {
+        if (handoffPolicy == null) {
+            String msg = "setHandoffPolicy(handoffPolicy): handoffPolicy must not be null!";
+            throw new IllegalArgumentException(msg);
+        }
+
+        synchronized (yieldReturnQueue) {
+            this.handoffPolicy = handoffPolicy;
+            // The background thread may now be allowed to carry on.
+            yieldReturnQueue.notifyAll();
+        }
+    }
+
+
+    @Override
+    public void close() {
+        if (Thread.currentThread() == thread) {
+            // Background thread is calling 'close()'.
+            if (!isThreadCancelled) {
+                synchronized (yieldReturnQueue) {
+                    isThreadCancelled = true;
+                    yieldReturnQueue.notifyAll();
+                }
+            }
+        } else {
+            // Foreground thread is calling 'close()'.
+            if (!isClosed) {
+                isClosed = true;
+                tracker.done();
+
+                synchronized (yieldReturnQueue) {
+                    isThreadCancelled = true;
+                    yieldReturnQueue.clear();
+                    yieldReturnQueue.notifyAll();
+                }
+            }
+        }
+    }
+
+
+    @Override
+    public Iterator<T> iterator() {
+        return this;
+    }
+
+
+    @Override
+    public boolean hasNext() {
+        if (isClosed) {
+            return false;
+        }
+
+        boolean result = false;
+        nextForegroundValue = null;
+
+        synchronized (yieldReturnQueue) {
+            if (!isStarted) {
+                isStarted = true;
+                thread.start();
+            }
+
+            if (yieldReturnQueue.isEmpty()) {
+                // Under lockstep this is what lets the background thread compute the next value.
+                isConsumerWaiting = true;
+                yieldReturnQueue.notifyAll();
+
+                while (yieldReturnQueue.isEmpty()) {
+                    if (isClosed || isThreadCancelled) {
+                        break;
+                    }
+                    try {
+                        yieldReturnQueue.wait();
+                    } catch (InterruptedException ex) {
+                        // Ignore the InterruptedException and keep looping.
+                    }
+                }
+                isConsumerWaiting = false;
+            }
+
+            result = !isClosed && !yieldReturnQueue.isEmpty();
+            if (result) {
+                nextForegroundValue = yieldReturnQueue.removeFirst();
+                yieldReturnQueue.notifyAll();
+            }
+        }//synchronized
+
+        return result;
+    }
+
+
+    @Override
+    public T next() {
+        if (isClosed) {
+            throw new NoSuchElementException();
+        }
+        return nextForegroundValue;
+    }
+
+
+    /**
+     * Discard the next 'n' elements. Those already queued are dropped here;
+     * the rest are dropped by 'yieldReturn(...)' without ever being handed over.
+     * An element already announced by 'hasNext()' is not among them.
+     * <br>
+     * The generator may fast-forward its own computation by checking 'pendingSkip()'.
+     */
+    public void skip(long n) {
+        if (n < 0) {
+            String msg = "skip(n): n must not be negative!";
+            throw new IllegalArgumentException(msg);
+        }
+
+        synchronized (yieldReturnQueue) {
+            while (n > 0 && !yieldReturnQueue.isEmpty()) {
+                yieldReturnQueue.removeFirst();
+                --n;
+            }
+            pendingSkip += n;
+            yieldReturnQueue.notifyAll();
+        }
+    }
+
+
+    @Override
+    public void run() {
+        tracker.workerStarted();
+        try {
+            synchronized (yieldReturnQueue) {
+                waitUntilMayCompute();
+            }
+            generator();
+        } catch (InterruptedException ex) {
+            // Ignore the InterruptedException.
+        } finally {
+            synchronized (yieldReturnQueue) {
+                isThreadCancelled = true;
+                yieldReturnQueue.notifyAll();
+            }
+            tracker.workerFinished();
+        }
+    }
+
+
+    protected boolean canKeepGoing() {
+        return !isThreadCancelled;
+    }
+
+
+    /**
+     * @return the number of upcoming elements the foreground thread has asked to skip.
+     * A generator that can cheaply fast-forward may do so and report it with 'skipped(count)';
+     * otherwise 'yieldReturn(...)' simply discards them.
+     */
+    protected long pendingSkip() {
+        synchronized (yieldReturnQueue) {
+            return pendingSkip;
+        }
+    }
+
+
+    /**
+     * Report that the generator fast-forwarded past 'count' elements without yielding them.
+     */
+    protected void skipped(long count) {
+        synchronized (yieldReturnQueue) {
+            pendingSkip -= Math.min(Math.max(count, 0), pendingSkip);
+        }
+    }
+
+
+    /**
+     * The descendant implementation of this method is where all the work happens.
+     * <br>
+     * <b>Important! This method runs in a background thread.</b><br>
+     * Keep things thread safe in the descendant implementation of this method.
+     * @throws InterruptedException
+     */
+    protected abstract void generator() throws InterruptedException;
+
+
+    protected void yieldReturn(T item) throws InterruptedException {
+        // Enforce that this method is only called from the background 'thread'.
+        if (Thread.currentThread() != thread) {
+            String msg = "yieldReturn(...) must only be called from the background generator thread!";
+            throw new InterruptedException(msg);
+        }
+
+        if (isThreadCancelled) {
+            throw new InterruptedException();
+        }
+
+        synchronized (yieldReturnQueue) {
+            // Under run-ahead, if necessary, wait until space becomes available in the queue.
+            while (!handoffPolicy.isLockstep() && yieldReturnQueue.size() >= handoffPolicy.getMaxQueueSize()) {
+                if (isThreadCancelled) {
+                    break;
+                }
+                try {
+                    yieldReturnQueue.wait();
+                } catch (InterruptedException ex) {
+                    // Ignore the InterruptedException and keep looping.
+                }
+            }
+
+            if (isThreadCancelled) {
+                throw new InterruptedException();
+            }
+            if (pendingSkip > 0) {
+                // Skipped, so carry on computing the next value.
+                --pendingSkip;
+                return;
+            }
+
+            yieldReturnQueue.addLast(item);
+            yieldReturnQueue.notifyAll();
+
+            waitUntilMayCompute();
+        }//synchronized
+    }
+
+
+    /**
+     * Under lockstep, wait until the foreground thread has taken everything and is waiting for more.
+     * Called while holding the lock.
+     */
+    private void waitUntilMayCompute() throws InterruptedException {
+        while (handoffPolicy.isLockstep() && !(isConsumerWaiting && yieldReturnQueue.isEmpty())) {
+            if (isThreadCancelled) {
+                break;
+            }
+            try {
+                yieldReturnQueue.wait();
+            } catch (InterruptedException ex) {
+                // Ignore the InterruptedException and keep looping.
+            }
+        }
+
+        if (isThreadCancelled) {
+            throw new InterruptedException();
+        }
+    }
+
+}
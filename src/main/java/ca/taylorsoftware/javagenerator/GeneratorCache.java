@@ -0,0 +1,120 @@
+package ca.taylorsoftware.javagenerator;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+
+/**
+ * A keyed set of CachedGenerators, shared by all callers, holding the most recently used 'maxEntries'.
+ * <br>
+ * An entry evicted to make room for another is not closed, since callers may still be iterating it;
+ * it is released once nothing refers to it any more. 'invalidate(key)' does the same for one entry,
+ * whereas 'close()' closes every entry straight away.
+ *
+ * @author Warren Taylor
+ * Created: 2026-10-19
+ * Copyright (c) 2026 Warren Taylor.  All right reserved.
+ *
+ * @param <K> the type of the keys.
+ * @param <T> the type of the elements generated.
+ */
+public class GeneratorCache<K, T> implements AutoCloseable {
+
+    private final Function<? super K, ? extends Iterable<T>> factory;
+    private final int maxCachedElements;
+    private final Serializer<T> serializer;
+    private final Path spillDirectory;
+
+    /** In least recently used order. */
+    private final LinkedHashMap<K, CachedGenerator<T>> entries;
+
+    private boolean isClosed = false;
+
+
+    /**
+     * @param factory creates the generator for a key.
+     * @param maxCachedElements see CachedGenerator, per entry.
+     */
+    public GeneratorCache(int maxEntries, Function<? super K, ? extends Iterable<T>> factory, int maxCachedElements) {
+        this(maxEntries, factory, maxCachedElements, null, null);
+    }
+
+    /**
+     * @param factory creates the generator for a key.
+     * @param maxCachedElements see CachedGenerator, per entry.
+     * @param serializer see CachedGenerator.
+     * @param spillDirectory see CachedGenerator.
+     */
+    public GeneratorCache(int maxEntries, Function<? super K, ? extends Iterable<T>> factory, int maxCachedElements,
+            Serializer<T> serializer, Path spillDirectory) {
+        if (maxEntries < 1) {
+            String msg = "GeneratorCache(maxEntries): maxEntries must be greater than or equal to 1!";
+            throw new IllegalArgumentException(msg);
+        }
+
+        this.factory = factory;
+        this.maxCachedElements = maxCachedElements;
+        this.serializer = serializer;
+        this.spillDirectory = spillDirectory;
+
+        entries = new LinkedHashMap<K, CachedGenerator<T>>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, CachedGenerator<T>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+
+    /**
+     * @return the CachedGenerator for 'key', creating it if need be.
+     */
+    public synchronized CachedGenerator<T> get(K key) {
+        if (isClosed) {
+            String msg = "get(key): the GeneratorCache has been closed!";
+            throw new IllegalStateException(msg);
+        }
+
+        CachedGenerator<T> result = entries.get(key);
+        if (result == null) {
+            result = new CachedGenerator<T>(() -> factory.apply(key), maxCachedElements, serializer, spillDirectory);
+            entries.put(key, result);
+        }
+        return result;
+    }
+
+
+    /**
+     * Forget the entry for 'key', so that the next 'get(key)' starts a new recording.
+     */
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+    }
+
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+
+    @Override
+    public void close() {
+        List<CachedGenerator<T>> closing;
+        synchronized (this) {
+            isClosed = true;
+            closing = new ArrayList<>(entries.values());
+            entries.clear();
+        }
+
+        for (CachedGenerator<T> entry : closing) {
+            entry.close();
+        }
+    }
+
+}
@@ -0,0 +1,250 @@
+package ca.taylorsoftware.javagenerator;
+
+import java.io.PrintStream;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Counts generators that become unreachable without having been closed and, optionally,
+ * reports where they were created.
+ * <br>
+ * Each generator is tracked by a Tracker, which is kept apart from the generator and never refers to it,
+ * so that it can act once the generator itself is unreachable. That can only happen once the
+ * foreground code has let go of the generator, so a generator still in use is never touched.
+ * A generator that is forgotten before being iterated has not started its background work,
+ * so there is nothing left to cancel; it is simply counted and, if sampled, reported.
+ * <br>
+ * A background thread that is running 'generator()' refers to the generator itself, so such a
+ * generator is never unreachable: it is neither cancelled nor counted as reclaimed, and its thread
+ * stays parked in 'yieldReturn(...)'. This includes every ThreadedGenerator that starts its thread
+ * in its constructor. Background threads are daemon threads, so that such a thread never keeps
+ * the JVM from exiting, but that does not end the leak. Instead, every generator whose thread is
+ * running is registered until it is closed or finishes, and 'reportUnclosed(...)' lists the ones
+ * that are still running without having been closed.
+ * <br>
+ * Leak reporting is off by default. When enabled, the creation stack trace of every Nth generator
+ * is captured and printed to System.err if that generator has to be reclaimed,
+ * and by 'reportUnclosed(...)'.
+ *
+ * @author Warren Taylor
+ * Created: 2026-10-19
+ * Copyright (c) 2026 Warren Taylor.  All right reserved.
+ */
+public final class GeneratorLeakDetector {
+
+    /** Phantom reference to an object, carrying the action to run once that object is unreachable. */
+    private static final class TrackedReference extends PhantomReference<Object> {
+        private final Runnable onUnreachable;
+
+        TrackedReference(Object referent, ReferenceQueue<Object> queue, Runnable onUnreachable) {
+            super(referent, queue);
+            this.onUnreachable = onUnreachable;
+        }
+    }
+
+    private static final ReferenceQueue<Object> referenceQueue = new ReferenceQueue<>();
+
+    /** Keeps the phantom references themselves reachable until they have been processed. */
+    private static final Set<TrackedReference> trackedReferences =
+            Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<TrackedReference, Boolean>()));
+
+    /** The number of background generator threads that are currently running. */
+    private static final AtomicInteger liveGenerators = new AtomicInteger();
+
+    /** The generators whose background threads are running, see 'reportUnclosed(...)'. */
+    private static final Set<Tracker> runningTrackers = ConcurrentHashMap.newKeySet();
+
+    /** The number of generators that became unreachable without being closed. */
+    private static final AtomicLong reclaimedGenerators = new AtomicLong();
+
+    /** Capture the creation site of every Nth generator; zero disables leak reporting. */
+    private static volatile int samplingInterval = 0;
+
+    private static final AtomicLong creationCounter = new AtomicLong();
+
+    static {
+        Thread reclaimer = new Thread(GeneratorLeakDetector::reclaim, "JavaGenerator-Reclaimer");
+        reclaimer.setDaemon(true);
+        reclaimer.start();
+    }
+
+
+    private GeneratorLeakDetector() {
+    }
+
+
+    /**
+     * @return the number of generator background threads that are currently running.
+     */
+    public static int liveGenerators() {
+        return liveGenerators.get();
+    }
+
+
+    /**
+     * @return the number of generators that the foreground code let go of
+     *  without calling 'close()' and before they had finished.
+     */
+    public static long reclaimedGenerators() {
+        return reclaimedGenerators.get();
+    }
+
+
+    /**
+     * Print every generator whose background thread is still running although it has not been closed,
+     * along with its creation stack trace if it was sampled, see 'setLeakReporting(...)'.
+     * Unlike 'reclaimedGenerators()', this does not depend on the generator becoming unreachable,
+     * so it also finds generators that are parked in 'yieldReturn(...)' for good.
+     * A generator that is simply still being iterated is listed as well.
+     * @return the number of generators listed.
+     */
+    public static int reportUnclosed(PrintStream out) {
+        int count = 0;
+        for (Tracker tracker : runningTrackers) {
+            if (!tracker.isDone) {
+                ++count;
+                out.format("%s is running but has not been closed.\n", tracker.generatorClass.getName());
+                if (tracker.creationSite != null) {
+                    tracker.creationSite.printStackTrace(out);
+                }
+            }
+        }
+        return count;
+    }
+
+
+    /**
+     * Enable or disable leak reporting.
+     * @param samplingInterval capture the creation stack trace of every Nth generator.
+     *  1 captures every generator, 0 disables leak reporting.
+     */
+    public static void setLeakReporting(int samplingInterval) {
+        if (samplingInterval < 0) {
+            String msg = "setLeakReporting(samplingInterval): samplingInterval must be greater than or equal to 0!";
+            throw new IllegalArgumentException(msg);
+        }
+        GeneratorLeakDetector.samplingInterval = samplingInterval;
+    }
+
+
+    /**
+     * @return the creation site of a new generator, or null if this generator is not being sampled.
+     */
+    static Throwable captureCreationSite() {
+        int interval = samplingInterval;
+        if (interval == 0 || creationCounter.getAndIncrement() % interval != 0) {
+            return null;
+        }
+        return new Throwable("Generator created here");
+    }
+
+
+    /**
+     * Run 'onUnreachable' on the reclaimer thread once 'referent' is no longer reachable.
+     * 'onUnreachable' must not itself hold a reference to 'referent'.
+     */
+    static void track(Object referent, Runnable onUnreachable) {
+        trackedReferences.add(new TrackedReference(referent, referenceQueue, onUnreachable));
+    }
+
+
+    /**
+     * @return a daemon thread that will run 'generator'. See the class comment.
+     */
+    static Thread newBackgroundThread(Runnable generator) {
+        Thread thread = new Thread(generator);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+
+    static void workerStarted() {
+        liveGenerators.incrementAndGet();
+    }
+
+
+    static void workerFinished() {
+        liveGenerators.decrementAndGet();
+    }
+
+
+    /**
+     * Called when a generator that was neither closed nor finished has become unreachable.
+     */
+    static void reportLeak(Class<?> generatorClass, Throwable creationSite) {
+        reclaimedGenerators.incrementAndGet();
+        if (creationSite != null) {
+            System.err.format("%s was not closed before becoming unreachable.\n", generatorClass.getName());
+            creationSite.printStackTrace();
+        }
+    }
+
+
+    private static void reclaim() {
+        while (true) {
+            try {
+                TrackedReference ref = (TrackedReference) referenceQueue.remove();
+                trackedReferences.remove(ref);
+                ref.onUnreachable.run();
+            } catch (InterruptedException ex) {
+                // Ignore the InterruptedException and keep looping.
+            } catch (RuntimeException ex) {
+                // Never let a failing action take down the reclaimer thread.
+                ex.printStackTrace();
+            }
+        }
+    }
+
+
+
+    /**
+     * Tracks one generator from its creation until it is closed, finishes, or becomes unreachable.
+     * It must never refer to the generator, or to its background thread, which does,
+     * since it stays registered in 'runningTrackers' while that thread is running.
+     */
+    static final class Tracker {
+        private final Class<?> generatorClass;
+
+        /** Where the generator was created, if sampled. */
+        private final Throwable creationSite = captureCreationSite();
+
+        /** Has the generator been closed or finished. */
+        private volatile boolean isDone = false;
+
+        Tracker(Object generator) {
+            generatorClass = generator.getClass();
+            track(generator, this::generatorUnreachable);
+        }
+
+        void workerStarted() {
+            runningTrackers.add(this);
+            GeneratorLeakDetector.workerStarted();
+        }
+
+        void workerFinished() {
+            isDone = true;
+            runningTrackers.remove(this);
+            GeneratorLeakDetector.workerFinished();
+        }
+
+        /** The generator has been closed, or has nothing more to generate. */
+        void done() {
+            isDone = true;
+            runningTrackers.remove(this);
+        }
+
+        private void generatorUnreachable() {
+            if (!isDone) {
+                reportLeak(generatorClass, creationSite);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,285 @@
+package ca.taylorsoftware.javagenerator;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+
+/**
+ * A view of a generator with operators fused into its 'yieldReturn(...)', so that they run on the
+ * background thread and only the surviving, transformed, elements are handed to the foreground thread.
+ * <br>
+ * Created by calling one of the operators on ThreadedGenerator or ThreadSafeGenerator.
+ * Operators are applied in the order they are called, and only before iteration starts.
+ * Each one returns a new view to use from then on, typically as a chain:
+ * <pre>
+ *     try (GeneratorPipeline&lt;String&gt; names = new PersonGenerator().filter(Person::isActive).map(Person::getName).limit(10)) {
+ *         for (String name : names) { ... }
+ *     }
+ * </pre>
+ * Like a Stream, a generator or view that an operator has been applied to is used up: applying another
+ * operator to it, or iterating it, throws IllegalStateException. Only the last view of the chain is iterable.
+ * <br>
+ * The operators run while the background thread holds the generator's lock, so keep them quick.
+ * Once 'limit(n)' or 'takeWhile(...)' has let through all it ever will,
+ * the next 'yieldReturn(...)' throws InterruptedException, ending 'generator()'.
+ *
+ * @author Warren Taylor
+ * Created: 2026-10-19
+ * Copyright (c) 2026 Warren Taylor.  All right reserved.
+ *
+ * @param <R> the type of the elements after the operators so far.
+ */
+public final class GeneratorPipeline<R> implements AutoCloseable, Iterable<R> {
+
+    /** The stages shared by every view of the same generator. */
+    private final Chain chain;
+
+    /** Has an operator been applied to this view, making the new view the only one to use. Guarded by the host's lock. */
+    private boolean isExtended = false;
+
+
+    /**
+     * The view of 'host' before any operator has been applied.
+     */
+    GeneratorPipeline(Host host) {
+        this(new Chain(host));
+    }
+
+    private GeneratorPipeline(Chain chain) {
+        this.chain = chain;
+    }
+
+
+    public <V> GeneratorPipeline<V> map(Function<? super R, ? extends V> mapper) {
+        return add(new Stage() {
+            @Override
+            @SuppressWarnings("unchecked")
+            boolean push(Object item) throws InterruptedException {
+                return downstream.push(mapper.apply((R) item));
+            }
+        });
+    }
+
+
+    public GeneratorPipeline<R> filter(Predicate<? super R> predicate) {
+        return add(new Stage() {
+            @Override
+            @SuppressWarnings("unchecked")
+            boolean push(Object item) throws InterruptedException {
+                return !predicate.test((R) item) || downstream.push(item);
+            }
+        });
+    }
+
+
+    public <V> GeneratorPipeline<V> flatMap(Function<? super R, ? extends Iterable<? extends V>> mapper) {
+        return add(new Stage() {
+            @Override
+            @SuppressWarnings("unchecked")
+            boolean push(Object item) throws InterruptedException {
+                for (V value : mapper.apply((R) item)) {
+                    if (!downstream.push(value)) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        });
+    }
+
+
+    /**
+     * Let elements through until the first one that does not match 'predicate'.
+     */
+    public GeneratorPipeline<R> takeWhile(Predicate<? super R> predicate) {
+        return add(new Stage() {
+            @Override
+            @SuppressWarnings("unchecked")
+            boolean push(Object item) throws InterruptedException {
+                return predicate.test((R) item) && downstream.push(item);
+            }
+        });
+    }
+
+
+    /**
+     * Let no more than 'maxSize' elements through.
+     */
+    public GeneratorPipeline<R> limit(long maxSize) {
+        if (maxSize < 0) {
+            String msg = "limit(maxSize): maxSize must not be negative!";
+            throw new IllegalArgumentException(msg);
+        }
+
+        return add(new Stage() {
+            private long remaining = maxSize;
+
+            @Override
+            boolean push(Object item) throws InterruptedException {
+                if (remaining == 0) {
+                    return false;
+                }
+                --remaining;
+                return downstream.push(item) && remaining > 0;
+            }
+        });
+    }
+
+
+    /**
+     * @throws IllegalStateException if an operator has been applied to this view; iterate the view it returned.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Iterator<R> iterator() {
+        synchronized (chain.host.lock()) {
+            checkNotExtended();
+        }
+        return (Iterator<R>) chain.host.iterator();
+    }
+
+
+    @Override
+    public void close() {
+        chain.host.close();
+    }
+
+
+    /**
+     * Push an element, from 'yieldReturn(...)', through the stages. Called while holding the host's lock.
+     * @return false once no more elements are wanted.
+     */
+    boolean push(Object item) throws InterruptedException {
+        if (!chain.isDone && !chain.head.push(item)) {
+            chain.isDone = true;
+        }
+        return !chain.isDone;
+    }
+
+
+    /**
+     * Must be called while holding the host's lock.
+     */
+    private void checkNotExtended() {
+        if (isExtended) {
+            String msg = "An operator has already been applied to this GeneratorPipeline; use the one it returned!";
+            throw new IllegalStateException(msg);
+        }
+    }
+
+
+    private <V> GeneratorPipeline<V> add(Stage stage) {
+        Host host = chain.host;
+        synchronized (host.lock()) {
+            checkNotExtended();
+            host.checkNotIterating();
+            isExtended = true;
+
+            stage.downstream = host.sink();
+            if (chain.last == null) {
+                chain.head = stage;
+            } else {
+                chain.last.downstream = stage;
+            }
+            chain.last = stage;
+
+            // Anything already generated has only been through the earlier stages.
+            List<Object> pending = host.drainPending();
+            if (!pending.isEmpty()) {
+                Collector collector = new Collector();
+                stage.downstream = collector;
+                try {
+                    for (Object item : pending) {
+                        if (chain.isDone || !stage.push(item)) {
+                            chain.isDone = true;
+                            break;
+                        }
+                    }
+                } catch (InterruptedException ex) {
+                    // The Collector never waits, so this does not happen.
+                }
+                stage.downstream = host.sink();
+                host.restorePending(collector.items);
+            }
+        }
+
+        return new GeneratorPipeline<V>(chain);
+    }
+
+
+
+    /**
+     * The stages fused into one generator's 'yieldReturn(...)'. Guarded by the host's lock.
+     */
+    private static final class Chain {
+        final Host host;
+
+        /** The first stage, which 'yieldReturn(...)' pushes into. It is the host's sink until an operator is added. */
+        Stage head;
+
+        /** The last operator stage, whose downstream is the host's sink. */
+        Stage last;
+
+        /** Has a stage declined any more elements. */
+        boolean isDone = false;
+
+        Chain(Host host) {
+            this.host = host;
+            head = host.sink();
+        }
+    }
+
+
+    /**
+     * One fused operator.
+     */
+    abstract static class Stage {
+        Stage downstream;
+
+        /**
+         * @return false once no more elements are wanted.
+         */
+        abstract boolean push(Object item) throws InterruptedException;
+    }
+
+
+    /** Collects the output of a newly added stage while re-processing already generated elements. */
+    private static final class Collector extends Stage {
+        final List<Object> items = new ArrayList<>();
+
+        @Override
+        boolean push(Object item) {
+            items.add(item);
+            return true;
+        }
+    }
+
+
+    /**
+     * What a GeneratorPipeline needs from the generator it is a view of.
+     */
+    interface Host {
+        /** The lock that 'yieldReturn(...)' holds while pushing through the stages. */
+        Object lock();
+
+        /** @throws IllegalStateException if operators can no longer be added. */
+        void checkNotIterating();
+
+        /** The final stage, which hands each element to the foreground thread. */
+        Stage sink();
+
+        /** Remove and return the elements generated but not yet taken by the foreground thread. */
+        List<Object> drainPending();
+
+        /** Put back what 'drainPending()' removed, after it has been through a new stage. */
+        void restorePending(List<Object> items);
+
+        Iterator<?> iterator();
+
+        void close();
+    }
+
+}
@@ -0,0 +1,222 @@
+package ca.taylorsoftware.javagenerator;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntSupplier;
+
+
+/**
+ * A group of generators sharing one thread budget and one run-ahead budget.
+ * <br>
+ * Generators join a scope by passing it to their constructor.
+ * At most 'maxThreads' of the scope's background threads run at any one time;
+ * the background threads of any further generators are started, in the order the generators
+ * were created, as earlier ones finish. The run-ahead allowance 'maxBufferedElements' is shared
+ * evenly between the ThreadedGenerator members that have not yet finished, and the elements
+ * buffered by all of them together never exceed it. The one exception is that a member
+ * with nothing buffered may always buffer one element, so that the member the foreground thread
+ * is waiting on can make progress while the others hold the whole allowance.
+ * <br>
+ * Closing the scope closes every generator that belongs to it.
+ * <br>
+ * Note: because background threads are started in creation order, the foreground code should
+ * iterate the scope's generators in roughly the same order. Waiting on a generator whose
+ * background thread has not been started, while the running ones are themselves waiting
+ * for the foreground, blocks forever.
+ *
+ * @author Warren Taylor
+ * Created: 2026-10-19
+ * Copyright (c) 2026 Warren Taylor.  All right reserved.
+ */
+public class GeneratorScope implements AutoCloseable {
+
+    /** The maximum number of background threads running at the same time. */
+    private final int maxThreads;
+
+    /** The total number of elements the members may buffer between them. */
+    private final int maxBufferedElements;
+
+    /** The generators belonging to this scope. Also used as the lock for everything below. */
+    private final Set<AutoCloseable> members = new LinkedHashSet<>();
+
+    /** Background threads waiting for a thread to become available. */
+    private final Deque<Thread> pendingThreads = new ArrayDeque<>();
+
+    private int runningThreads = 0;
+
+    /** The number of unfinished members that share 'maxBufferedElements'. */
+    private volatile int runAheadMembers = 0;
+
+    /** The number of elements buffered, or about to be, by all the members together. */
+    private int bufferedElements = 0;
+
+    private boolean isClosed = false;
+
+
+    public GeneratorScope(int maxThreads, int maxBufferedElements) {
+        if (maxThreads < 1) {
+            String msg = "GeneratorScope(maxThreads, maxBufferedElements): maxThreads must be greater than or equal to 1!";
+            throw new IllegalArgumentException(msg);
+        }
+        if (maxBufferedElements < 1) {
+            String msg = "GeneratorScope(maxThreads, maxBufferedElements): maxBufferedElements must be greater than or equal to 1!";
+            throw new IllegalArgumentException(msg);
+        }
+
+        this.maxThreads = maxThreads;
+        this.maxBufferedElements = maxBufferedElements;
+    }
+
+
+    /**
+     * Close every generator belonging to this scope, including those whose background thread has not started.
+     */
+    @Override
+    public void close() {
+        List<AutoCloseable> toClose;
+
+        synchronized (members) {
+            if (isClosed) {
+                return;
+            }
+            isClosed = true;
+            pendingThreads.clear();
+            toClose = new ArrayList<>(members);
+        }
+
+        for (AutoCloseable member : toClose) {
+            try {
+                member.close();
+            } catch (Exception ex) {
+                // Keep going, the remaining members must still be closed.
+                ex.printStackTrace();
+            }
+        }
+    }
+
+
+    /**
+     * @return the number of generators belonging to this scope that have not yet finished.
+     */
+    public int size() {
+        synchronized (members) {
+            return members.size();
+        }
+    }
+
+
+    /**
+     * @return the number of this scope's background threads that are currently running.
+     */
+    public int runningThreads() {
+        synchronized (members) {
+            return runningThreads;
+        }
+    }
+
+
+    /**
+     * @return the number of elements the members currently have buffered between them.
+     */
+    public int bufferedElements() {
+        synchronized (members) {
+            return bufferedElements;
+        }
+    }
+
+
+    /**
+     * Add a generator to this scope and start its background thread when the thread budget allows.
+     * @param isRunAhead true if the member buffers elements and so shares 'maxBufferedElements'.
+     */
+    void join(AutoCloseable member, Thread thread, boolean isRunAhead) {
+        synchronized (members) {
+            if (isClosed) {
+                String msg = "GeneratorScope: cannot add a generator to a closed scope!";
+                throw new IllegalStateException(msg);
+            }
+
+            members.add(member);
+            if (isRunAhead) {
+                // Counted from the start, rather than once running, so that the members already
+                // running never hold more than their share when a pending member starts.
+                ++runAheadMembers;
+            }
+            if (runningThreads < maxThreads) {
+                ++runningThreads;
+                thread.start();
+            } else {
+                pendingThreads.addLast(thread);
+            }
+        }
+    }
+
+
+    /**
+     * Called by a member's background thread as it finishes.
+     */
+    void leave(AutoCloseable member, boolean isRunAhead) {
+        synchronized (members) {
+            members.remove(member);
+            if (isRunAhead) {
+                --runAheadMembers;
+            }
+            --runningThreads;
+
+            if (!isClosed && !pendingThreads.isEmpty()) {
+                ++runningThreads;
+                pendingThreads.removeFirst().start();
+            }
+        }
+    }
+
+
+    /**
+     * Called by a member's background thread before it buffers an element. Waits while the members
+     * have 'maxBufferedElements' buffered between them, unless 'memberBuffered' reports that this member
+     * has nothing buffered. The element is counted from here on, until 'adjustBuffered(...)' releases it.
+     * @return false, with nothing counted, if 'isCancelled' became true while waiting.
+     */
+    boolean reserve(IntSupplier memberBuffered, BooleanSupplier isCancelled) {
+        synchronized (members) {
+            while (bufferedElements >= maxBufferedElements && memberBuffered.getAsInt() > 0) {
+                if (isCancelled.getAsBoolean()) {
+                    return false;
+                }
+                try {
+                    members.wait();
+                } catch (InterruptedException ex) {
+                    // Ignore the InterruptedException and keep looping.
+                }
+            }
+            ++bufferedElements;
+            return true;
+        }
+    }
+
+
+    /**
+     * Called by a member whenever the number of elements it has buffered changes by 'delta',
+     * and by 'close()' so that a member waiting in 'reserve(...)' notices it has been cancelled.
+     */
+    void adjustBuffered(int delta) {
+        synchronized (members) {
+            bufferedElements += delta;
+            members.notifyAll();
+        }
+    }
+
+
+    /**
+     * @return the number of elements each run-ahead member may currently buffer.
+     */
+    int runAheadShare() {
+        return Math.max(1, maxBufferedElements / Math.max(1, runAheadMembers));
+    }
+
+}
@@ -0,0 +1,231 @@
+package ca.taylorsoftware.javagenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Takes the next available element from whichever of many ThreadedGenerators has one ready,
+ * rather than blocking on the first that does not.
+ * <br>
+ * The generators are tried in rotation, starting after the one that supplied the last element,
+ * so that a busy generator cannot starve the others. When none has an element ready,
+ * 'select()' waits to be signalled by a 'yieldReturn(...)', or a generator finishing,
+ * instead of polling. A generator is deregistered once it has finished and been drained, or closed.
+ * <br>
+ * 'close()' closes every generator still registered.
+ *
+ * @author Warren Taylor
+ * Created: 2026-10-19
+ * Copyright (c) 2026 Warren Taylor.  All right reserved.
+ *
+ * @param <T>
+ */
+public class GeneratorSelector<T> implements AutoCloseable {
+
+    /** The registered generators, guarded by its own monitor. */
+    private final List<ThreadedGenerator<? extends T>> generators = new ArrayList<>();
+
+    /** Where the next rotation starts. */
+    private int nextIndex = 0;
+
+    /**
+     * Counts the signals from the generators. Its monitor is never held while taking any other lock,
+     * so the generators may signal while holding their own.
+     */
+    private final Object signalLock = new Object();
+    private long signalCount = 0;
+
+    private volatile boolean isClosed = false;
+
+
+    /**
+     * Add 'generator' to those selected from. A generator can only belong to one selector,
+     * and should no longer be iterated directly.
+     */
+    public void register(ThreadedGenerator<? extends T> generator) {
+        if (isClosed) {
+            String msg = "register(generator): the GeneratorSelector has been closed!";
+            throw new IllegalStateException(msg);
+        }
+
+        generator.setSelector(this);
+        synchronized (generators) {
+            generators.add(generator);
+        }
+        signal();
+    }
+
+
+    /**
+     * Remove 'generator' from those selected from, without closing it.
+     */
+    public void deregister(ThreadedGenerator<? extends T> generator) {
+        synchronized (generators) {
+            if (!generators.remove(generator)) {
+                return;
+            }
+        }
+        generator.setSelector(null);
+        signal();
+    }
+
+
+    /** @return the number of generators registered. */
+    public int size() {
+        synchronized (generators) {
+            return generators.size();
+        }
+    }
+
+
+    /**
+     * Wait for the next element from any of the generators.
+     * @return the next element, or null once no generators are left, or the selector is closed.
+     */
+    public Selection<T> select() {
+        return select(-1);
+    }
+
+
+    /**
+     * Wait no longer than 'timeout' for the next element from any of the generators.
+     * @return the next element, or null if none became available in time, no generators are left,
+     *  or the selector is closed.
+     */
+    public Selection<T> select(long timeout, TimeUnit unit) {
+        return select(Math.max(unit.toNanos(timeout), 0));
+    }
+
+
+    /**
+     * @return the next element if one is ready now, otherwise null.
+     */
+    public Selection<T> selectNow() {
+        return select(0);
+    }
+
+
+    @Override
+    public void close() {
+        List<ThreadedGenerator<? extends T>> toClose;
+        synchronized (generators) {
+            isClosed = true;
+            toClose = new ArrayList<>(generators);
+            generators.clear();
+        }
+
+        for (ThreadedGenerator<? extends T> generator : toClose) {
+            generator.setSelector(null);
+            generator.close();
+        }
+        signal();
+    }
+
+
+    /**
+     * Called by a registered generator when an element has been added to its queue or it has finished.
+     */
+    void signal() {
+        synchronized (signalLock) {
+            ++signalCount;
+            signalLock.notifyAll();
+        }
+    }
+
+
+    /**
+     * @param timeoutNanos negative to wait indefinitely.
+     */
+    private Selection<T> select(long timeoutNanos) {
+        long deadline = System.nanoTime() + timeoutNanos;
+
+        while (!isClosed) {
+            long seenSignals;
+            synchronized (signalLock) {
+                seenSignals = signalCount;
+            }
+
+            // Look at each generator in turn, without holding any lock of this selector's.
+            List<ThreadedGenerator<? extends T>> snapshot;
+            int start;
+            synchronized (generators) {
+                if (generators.isEmpty()) {
+                    return null;
+                }
+                snapshot = new ArrayList<>(generators);
+                start = nextIndex % snapshot.size();
+            }
+
+            for (int offset = 0; offset < snapshot.size(); ++offset) {
+                int index = (start + offset) % snapshot.size();
+                Selection<T> selection = poll(snapshot.get(index));
+                if (selection != null) {
+                    synchronized (generators) {
+                        nextIndex = index + 1;
+                    }
+                    return selection;
+                }
+            }
+
+            synchronized (signalLock) {
+                // Only wait if nothing has happened since the generators were looked at.
+                while (signalCount == seenSignals && !isClosed) {
+                    long remaining = deadline - System.nanoTime();
+                    if (timeoutNanos >= 0 && remaining <= 0) {
+                        return null;
+                    }
+                    try {
+                        if (timeoutNanos < 0) {
+                            signalLock.wait();
+                        } else {
+                            TimeUnit.NANOSECONDS.timedWait(signalLock, remaining);
+                        }
+                    } catch (InterruptedException ex) {
+                        // Ignore the InterruptedException and keep looping.
+                    }
+                }
+            }//synchronized
+        }
+        return null;
+    }
+
+
+    /**
+     * @return the next element of 'generator' if it has one ready, otherwise null.
+     */
+    private Selection<T> poll(ThreadedGenerator<? extends T> generator) {
+        if (generator.tryNext()) {
+            return new Selection<T>(generator, generator.next());
+        }
+        if (generator.isFinished()) {
+            deregister(generator);
+        }
+        return null;
+    }
+
+
+
+    /**
+     * An element together with the generator it came from.
+     */
+    public static final class Selection<T> {
+        private final ThreadedGenerator<? extends T> source;
+        private final T value;
+
+        Selection(ThreadedGenerator<? extends T> source, T value) {
+            this.source = source;
+            this.value = value;
+        }
+
+        public ThreadedGenerator<? extends T> getSource() {
+            return source;
+        }
+
+        public T getValue() {
+            return value;
+        }
+    }
+
+}
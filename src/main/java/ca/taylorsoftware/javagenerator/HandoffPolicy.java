@@ -0,0 +1,60 @@
+package ca.taylorsoftware.javagenerator;
+
+
+/**
+ * How a Generator hands elements from its background thread to the foreground thread.
+ * <ul>
+ * <li>'lockstep()': as with ThreadSafeGenerator, only one of the two threads is active at a time;
+ *     the background thread computes the next element only while the foreground thread waits for it.</li>
+ * <li>'runAhead(maxQueueSize)': as with ThreadedGenerator, the background thread runs ahead
+ *     by up to 'maxQueueSize' elements.</li>
+ * </ul>
+ *
+ * @author Warren Taylor
+ * Created: 2026-10-19
+ * Copyright (c) 2026 Warren Taylor.  All right reserved.
+ */
+public final class HandoffPolicy {
+
+    private static final HandoffPolicy LOCKSTEP = new HandoffPolicy(0);
+
+    /** The maximum number of elements queued ahead of the foreground thread, 0 for lockstep. */
+    private final int maxQueueSize;
+
+
+    private HandoffPolicy(int maxQueueSize) {
+        this.maxQueueSize = maxQueueSize;
+    }
+
+
+    public static HandoffPolicy lockstep() {
+        return LOCKSTEP;
+    }
+
+
+    public static HandoffPolicy runAhead(int maxQueueSize) {
+        if (maxQueueSize < 1) {
+            String msg = "runAhead(maxQueueSize): maxQueueSize must be greater than or equal to 1!";
+            throw new IllegalArgumentException(msg);
+        }
+        return new HandoffPolicy(maxQueueSize);
+    }
+
+
+    public boolean isLockstep() {
+        return maxQueueSize == 0;
+    }
+
+
+    /** @return the maximum number of elements queued ahead of the foreground thread, 0 for lockstep. */
+    public int getMaxQueueSize() {
+        return maxQueueSize;
+    }
+
+
+    @Override
+    public String toString() {
+        return isLockstep() ? "lockstep" : "runAhead(" + maxQueueSize + ")";
+    }
+
+}
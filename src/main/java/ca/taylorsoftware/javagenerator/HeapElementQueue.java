@@ -0,0 +1,29 @@
+package ca.taylorsoftware.javagenerator;
+
+import java.util.LinkedList;
+
+
+/**
+ * The default ElementQueue, holding the elements themselves on the Java heap.
+ *
+ * @author Warren Taylor
+ * Created: 2026-10-19
+ * Copyright (c) 2026 Warren Taylor.  All right reserved.
+ *
+ * @param <T>
+ */
+final class HeapElementQueue<T> extends LinkedList<T> implements ElementQueue<T> {
+    private static final long serialVersionUID = 1L;
+
+
+    @Override
+    public boolean isFull(int limit) {
+        return size() >= limit;
+    }
+
+
+    @Override
+    public void discardFirst() {
+        removeFirst();
+    }
+}
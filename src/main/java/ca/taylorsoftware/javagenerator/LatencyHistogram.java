@@ -0,0 +1,139 @@
+package ca.taylorsoftware.javagenerator;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/**
+ * A fixed-memory histogram of durations in nanoseconds, safe to record into from any thread.
+ * <br>
+ * Buckets are log-linear: exact below 64ns, then 32 buckets per power of two,
+ * so any percentile reported is within about 3% of the true value.
+ * The whole range of long is covered in under 2,000 buckets, about 15KB.
+ *
+ * @author Warren Taylor
+ * Created: 2026-10-19
+ * Copyright (c) 2026 Warren Taylor.  All right reserved.
+ */
+public final class LatencyHistogram {
+
+    /** log2 of the number of buckets per power of two. */
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /** Enough buckets for Long.MAX_VALUE, whose most significant bit is bit 62. */
+    private static final int BUCKETS = (62 - SUB_BUCKET_BITS) * SUB_BUCKETS + 2 * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+
+    /**
+     * Record one duration. Negative durations, from a clock that is not monotonic, are recorded as 0.
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        counts.incrementAndGet(bucketIndex(value));
+        count.incrementAndGet();
+
+        long currentMax = max.get();
+        while (value > currentMax && !max.compareAndSet(currentMax, value)) {
+            currentMax = max.get();
+        }
+    }
+
+
+    public long getCount() {
+        return count.get();
+    }
+
+
+    /** @return the largest duration recorded, in nanoseconds, exactly. */
+    public long getMax() {
+        return max.get();
+    }
+
+
+    /**
+     * @param percentile between 0 and 100, e.g. 99.9
+     * @return the duration, in nanoseconds, that 'percentile' percent of the recorded durations do not exceed,
+     *  rounded up to the top of its bucket; 0 if nothing has been recorded.
+     */
+    public long getPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            String msg = "getPercentile(percentile): percentile must be between 0 and 100!";
+            throw new IllegalArgumentException(msg);
+        }
+
+        long total = count.get();
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+        long seen = 0;
+        for (int index = 0; index < BUCKETS; ++index) {
+            seen += counts.get(index);
+            if (seen >= rank) {
+                return Math.min(bucketUpperBound(index), max.get());
+            }
+        }
+        return max.get();
+    }
+
+
+    public void reset() {
+        for (int index = 0; index < BUCKETS; ++index) {
+            counts.set(index, 0);
+        }
+        count.set(0);
+        max.set(0);
+    }
+
+
+    /**
+     * @return e.g. "count=1000 p50=12.5us p99=80.1us p99.9=1.2ms max=3.4ms"
+     */
+    @Override
+    public String toString() {
+        return String.format("count=%d p50=%s p99=%s p99.9=%s max=%s", getCount(),
+                format(getPercentile(50)), format(getPercentile(99)), format(getPercentile(99.9)), format(getMax()));
+    }
+
+
+    private static String format(long nanos) {
+        if (nanos < TimeUnit.MICROSECONDS.toNanos(1)) {
+            return nanos + "ns";
+        } else if (nanos < TimeUnit.MILLISECONDS.toNanos(1)) {
+            return String.format("%.1fus", nanos / 1e3);
+        } else if (nanos < TimeUnit.SECONDS.toNanos(1)) {
+            return String.format("%.1fms", nanos / 1e6);
+        }
+        return String.format("%.1fs", nanos / 1e9);
+    }
+
+
+    static int bucketIndex(long value) {
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+        // Keep the top SUB_BUCKET_BITS + 1 bits of 'value', the first of which is always set.
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+
+    static long bucketUpperBound(int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long top = index % SUB_BUCKETS + SUB_BUCKETS;
+        long upper = ((top + 1) << shift) - 1;
+        // The very last bucket would otherwise overflow.
+        return upper < 0 ? Long.MAX_VALUE : upper;
+    }
+
+}
@@ -0,0 +1,124 @@
+package ca.taylorsoftware.javagenerator;
+
+
+/**
+ * The timestamps of the elements in a generator's queue, kept alongside it in a ring of longs
+ * so that tracing allocates nothing per element, and the histograms they feed.
+ * The ring grows to no more than 'maxTimestamps'; elements queued while it is full are not timed,
+ * and are counted by 'droppedTimestamps()' instead.
+ * Not thread safe; the generator calls it while holding the queue's lock.
+ *
+ * @author Warren Taylor
+ * Created: 2026-10-19
+ * Copyright (c) 2026 Warren Taylor.  All right reserved.
+ */
+final class LatencyTracer {
+
+    /** The default maximum number of timestamps held, 512KB of them. */
+    static final int DEFAULT_MAX_TIMESTAMPS = 64 << 10;
+
+    /** From 'yieldReturn(...)' to the matching 'next()'. */
+    final LatencyHistogram yieldToNext = new LatencyHistogram();
+
+    /** Between successive elements being added to the queue. */
+    final LatencyHistogram interArrival = new LatencyHistogram();
+
+    private final int maxTimestamps;
+
+    private long[] ring = new long[16];
+    private int head = 0;
+    private int size = 0;
+
+    /** The number of elements at the front of the queue that were added without a timestamp. */
+    private int untraced;
+
+    /** The number of elements behind those in the ring that were added without a timestamp, as it was full. */
+    private int untracedBehind = 0;
+
+    /** The number of elements not timed because the ring was full. */
+    private long droppedTimestamps = 0;
+
+    private long lastEnqueued = -1;
+
+
+    /**
+     * @param alreadyQueued the number of elements queued before tracing began.
+     */
+    LatencyTracer(int alreadyQueued) {
+        this(alreadyQueued, DEFAULT_MAX_TIMESTAMPS);
+    }
+
+    LatencyTracer(int alreadyQueued, int maxTimestamps) {
+        untraced = alreadyQueued;
+        this.maxTimestamps = maxTimestamps;
+    }
+
+
+    void enqueued(long now) {
+        if (lastEnqueued >= 0) {
+            interArrival.record(now - lastEnqueued);
+        }
+        lastEnqueued = now;
+
+        if (untracedBehind > 0 || size == maxTimestamps) {
+            // Keep the ring in queue order: once one element has gone untimed, so do those after it
+            // until the ring has been emptied.
+            ++untracedBehind;
+            ++droppedTimestamps;
+            return;
+        }
+        if (size == ring.length) {
+            long[] grown = new long[Math.min(ring.length * 2, maxTimestamps)];
+            for (int index = 0; index < size; ++index) {
+                grown[index] = ring[(head + index) % ring.length];
+            }
+            ring = grown;
+            head = 0;
+        }
+        ring[(head + size) % ring.length] = now;
+        ++size;
+    }
+
+
+    /**
+     * @return when the element just removed from the front of the queue was added, or -1 if not known.
+     */
+    long dequeued() {
+        if (untraced > 0) {
+            --untraced;
+            return -1;
+        }
+        if (size == 0) {
+            return -1;
+        }
+        long result = ring[head];
+        head = (head + 1) % ring.length;
+        --size;
+        if (size == 0) {
+            // The untimed elements are now at the front of the queue.
+            untraced = untracedBehind;
+            untracedBehind = 0;
+        }
+        return result;
+    }
+
+
+    /**
+     * @return the number of elements not timed because 'maxTimestamps' elements were already being timed.
+     */
+    long droppedTimestamps() {
+        return droppedTimestamps;
+    }
+
+
+    /**
+     * The queue has been emptied, and then 'requeued' elements put back without timestamps.
+     */
+    void cleared(int requeued) {
+        head = 0;
+        size = 0;
+        untraced = requeued;
+        untracedBehind = 0;
+    }
+
+}
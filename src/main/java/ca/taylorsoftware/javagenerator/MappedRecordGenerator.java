@@ -0,0 +1,236 @@
+package ca.taylorsoftware.javagenerator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+
+/**
+ * Generates the records of a file as read-only ByteBuffer slices of a memory mapping of that file.
+ * <br>
+ * Records are either separated by a delimiter byte (which is not part of the record),
+ * or each is preceded by its length as a 4 byte int. No record is ever copied:
+ * each generated ByteBuffer shares its content with the mapping.
+ * Files larger than 2GB are mapped one window at a time; a record must fit within a window.
+ * <br>
+ * 'close()' closes the file and drops this generator's reference to the mapping.
+ * The mapping itself is released once the slices handed out have also become unreachable;
+ * it is never unmapped while a slice could still read from it.
+ * <br>
+ * A malformed record or a read error ends the generator; 'hasNext()' then throws it,
+ * wrapped in an UncheckedIOException, once the records before it have been taken.
+ * So does the 'hasNext()' of a GeneratorPipeline built on this generator.
+ *
+ * @author Warren Taylor
+ * Created: 2026-10-19
+ * Copyright (c) 2026 Warren Taylor.  All right reserved.
+ */
+public class MappedRecordGenerator extends ThreadedGenerator<ByteBuffer> {
+
+    enum Framing {DELIMITED, LENGTH_PREFIXED};
+
+    /** The default maximum number of records buffered ahead of the foreground thread. */
+    private static final int DEFAULT_MAX_QUEUE_SIZE = 1024;
+
+    /** The default number of bytes mapped at a time. */
+    private static final long DEFAULT_WINDOW_SIZE = 1L << 30;
+
+    /** The number of bytes in a length prefix. */
+    private static final int LENGTH_PREFIX_SIZE = 4;
+
+    private final Framing framing;
+    private final byte delimiter;
+    private final ByteOrder lengthOrder;
+    private final long windowSize;
+
+    private final FileChannel channel;
+
+    /** Why the background thread stopped before the end of the file, if it did. */
+    private volatile IOException failure;
+
+    /** Has 'close()' been called. */
+    private volatile boolean isClosed = false;
+
+
+    /**
+     * Generate the records of 'path' separated by 'delimiter'.
+     */
+    public MappedRecordGenerator(Path path, byte delimiter) throws IOException {
+        this(path, delimiter, DEFAULT_MAX_QUEUE_SIZE);
+    }
+
+    /**
+     * Generate the records of 'path' separated by 'delimiter'.
+     */
+    public MappedRecordGenerator(Path path, byte delimiter, int maxQueueSize) throws IOException {
+        this(path, Framing.DELIMITED, delimiter, ByteOrder.BIG_ENDIAN, maxQueueSize, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Generate the records of 'path', each preceded by its length as a 4 byte int in 'lengthOrder'.
+     */
+    public MappedRecordGenerator(Path path, ByteOrder lengthOrder, int maxQueueSize) throws IOException {
+        this(path, Framing.LENGTH_PREFIXED, (byte) 0, lengthOrder, maxQueueSize, DEFAULT_WINDOW_SIZE);
+    }
+
+    MappedRecordGenerator(Path path, Framing framing, byte delimiter, ByteOrder lengthOrder,
+            int maxQueueSize, long windowSize) throws IOException {
+        super(null, maxQueueSize, true);
+
+        if (windowSize < 1 || windowSize > Integer.MAX_VALUE) {
+            String msg = "MappedRecordGenerator(windowSize): windowSize must be between 1 and Integer.MAX_VALUE!";
+            throw new IllegalArgumentException(msg);
+        }
+
+        this.framing = framing;
+        this.delimiter = delimiter;
+        this.lengthOrder = lengthOrder;
+        this.windowSize = windowSize;
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        start();
+    }
+
+
+    @Override
+    public void close() {
+        isClosed = true;
+        super.close();
+        try {
+            channel.close();
+        } catch (IOException ex) {
+            // Nothing more can be done with the file.
+        }
+    }
+
+
+    /**
+     * Reached through 'hasNext()', and through the GeneratorPipeline if operators have been applied.
+     * @throws UncheckedIOException once the records before a malformed record, or a read error, have been taken.
+     */
+    @Override
+    protected void finished() {
+        IOException cause = failure;
+        if (cause != null && !isClosed) {
+            throw new UncheckedIOException(cause);
+        }
+    }
+
+
+    /**
+     * @return the malformed record or read error that ended this generator early, or null if there was none.
+     */
+    public IOException getFailure() {
+        return failure;
+    }
+
+
+    @Override
+    protected void generator() throws InterruptedException {
+        try {
+            long fileSize = channel.size();
+            long position = 0;
+
+            while (position < fileSize) {
+                long length = Math.min(windowSize, fileSize - position);
+                boolean isLastWindow = position + length == fileSize;
+                ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+
+                int consumed;
+                if (framing == Framing.DELIMITED) {
+                    consumed = splitDelimited(mapped, isLastWindow);
+                } else {
+                    consumed = splitLengthPrefixed(mapped, isLastWindow);
+                }
+
+                if (consumed == 0 && !isLastWindow) {
+                    String msg = String.format("MappedRecordGenerator: the record at %d is larger than %d bytes!", position, windowSize);
+                    throw new IOException(msg);
+                }
+                // The next window starts with the first record not wholly within this one.
+                position += consumed;
+            }
+        } catch (ClosedChannelException ex) {
+            // 'close()' was called while mapping the next window.
+        } catch (IOException ex) {
+            // Handed over to the foreground thread by 'hasNext()'.
+            failure = ex;
+        } finally {
+            try {
+                // Mappings stay valid after their channel has been closed.
+                channel.close();
+            } catch (IOException ex) {
+                // Nothing more can be done with the file.
+            }
+        }
+    }
+
+
+    /**
+     * @return the number of bytes of whole records (and their delimiters) found in 'buffer'.
+     */
+    private int splitDelimited(ByteBuffer buffer, boolean isLastWindow) throws InterruptedException {
+        int limit = buffer.limit();
+        int start = 0;
+
+        for (int index = 0; index < limit; ++index) {
+            if (buffer.get(index) == delimiter) {
+                yieldReturn(slice(buffer, start, index));
+                start = index + 1;
+            }
+        }
+
+        if (isLastWindow && start < limit) {
+            // The last record is not followed by a delimiter.
+            yieldReturn(slice(buffer, start, limit));
+            start = limit;
+        }
+        return start;
+    }
+
+
+    /**
+     * @return the number of bytes of whole records (and their length prefixes) found in 'buffer'.
+     */
+    private int splitLengthPrefixed(ByteBuffer buffer, boolean isLastWindow) throws InterruptedException, IOException {
+        ByteBuffer lengths = buffer.duplicate().order(lengthOrder);
+        int limit = buffer.limit();
+        int start = 0;
+
+        while (limit - start >= LENGTH_PREFIX_SIZE) {
+            int length = lengths.getInt(start);
+            if (length < 0) {
+                String msg = String.format("MappedRecordGenerator: negative record length %d!", length);
+                throw new IOException(msg);
+            }
+
+            int end = start + LENGTH_PREFIX_SIZE + length;
+            if (end < 0 || end > limit) {
+                // The record continues into the next window.
+                break;
+            }
+            yieldReturn(slice(buffer, start + LENGTH_PREFIX_SIZE, end));
+            start = end;
+        }
+
+        if (isLastWindow && start < limit) {
+            throw new IOException("MappedRecordGenerator: the last record is truncated!");
+        }
+        return start;
+    }
+
+
+    private static ByteBuffer slice(ByteBuffer buffer, int start, int end) {
+        ByteBuffer dup = buffer.duplicate();
+        // Go through Buffer so that this also runs on Java 8, where position(int) and limit(int) return Buffer.
+        ((Buffer) dup).limit(end);
+        ((Buffer) dup).position(start);
+        return dup.slice();
+    }
+
+}
@@ -0,0 +1,264 @@
+package ca.taylorsoftware.javagenerator;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.NoSuchElementException;
+
+
+/**
+ * An ElementQueue that keeps its elements serialized in direct ByteBuffer segments,
+ * outside of the Java heap, and only deserializes each one as it is removed.
+ * <br>
+ * Each element is stored as its length followed by its bytes. Segments are allocated as the
+ * queue grows and dropped as it drains, keeping one spare segment for reuse.
+ *
+ * @author Warren Taylor
+ * Created: 2026-10-19
+ * Copyright (c) 2026 Warren Taylor.  All right reserved.
+ *
+ * @param <T>
+ */
+final class OffHeapElementQueue<T> implements ElementQueue<T> {
+    /** The default size of each direct ByteBuffer segment. */
+    static final int DEFAULT_SEGMENT_SIZE = 1 << 20;
+
+    /**
+     * The size of the first segment. Each new segment is twice the size of the one before, up to 'segmentSize',
+     * so that a queue holding only a few small elements does not tie up a whole segment of direct memory.
+     */
+    static final int INITIAL_SEGMENT_SIZE = 4 << 10;
+
+    /** The number of bytes in the length that precedes each element. */
+    private static final int LENGTH_SIZE = 4;
+
+    private final Serializer<T> serializer;
+    private final int segmentSize;
+    private int nextSegmentSize;
+
+    /** The first segment is read from, the last segment is written to. */
+    private final Deque<Segment> segments = new ArrayDeque<>();
+
+    /** A drained segment kept for reuse. */
+    private Segment spare;
+
+    private int size = 0;
+
+    /** Heap scratch space the elements are serialized into and deserialized from, reused for every element. */
+    private final ScratchOutputStream scratchOut = new ScratchOutputStream();
+    private final DataOutputStream dataOut = new DataOutputStream(scratchOut);
+    private final ScratchInputStream scratchIn = new ScratchInputStream();
+    private final DataInputStream dataIn = new DataInputStream(scratchIn);
+
+
+    OffHeapElementQueue(Serializer<T> serializer) {
+        this(serializer, DEFAULT_SEGMENT_SIZE);
+    }
+
+    OffHeapElementQueue(Serializer<T> serializer, int segmentSize) {
+        this.serializer = serializer;
+        this.segmentSize = segmentSize;
+        this.nextSegmentSize = Math.min(INITIAL_SEGMENT_SIZE, segmentSize);
+    }
+
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+
+    @Override
+    public boolean isFull(int limit) {
+        return size >= limit;
+    }
+
+
+    @Override
+    public void addLast(T item) {
+        scratchOut.reset();
+        try {
+            serializer.serialize(item, dataOut);
+            dataOut.flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        int length = scratchOut.size();
+
+        Segment tail = segments.peekLast();
+        if (tail == null || tail.writer.remaining() < LENGTH_SIZE + length) {
+            tail = newSegment(LENGTH_SIZE + length);
+            segments.addLast(tail);
+        }
+        tail.writer.putInt(length);
+        tail.writer.put(scratchOut.array(), 0, length);
+        ++size;
+    }
+
+
+    @Override
+    public T removeFirst() {
+        Segment head = firstElement();
+        int length = head.reader.getInt();
+        byte[] bytes = scratchIn.prepare(length);
+        head.reader.get(bytes, 0, length);
+        removed(head);
+
+        try {
+            return serializer.deserialize(dataIn);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+
+    @Override
+    public void discardFirst() {
+        Segment head = firstElement();
+        int length = head.reader.getInt();
+        // Go through Buffer so that this also runs on Java 8, where position(int) returns Buffer.
+        ((Buffer) head.reader).position(head.reader.position() + length);
+        removed(head);
+    }
+
+
+    /**
+     * @return the segment whose reader is positioned at the first element.
+     */
+    private Segment firstElement() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+
+        Segment head = segments.peekFirst();
+        while (head.reader.position() == head.writer.position()) {
+            // Everything in this segment has been read, so it can only be a full, earlier, segment.
+            recycle(segments.removeFirst());
+            head = segments.peekFirst();
+        }
+        return head;
+    }
+
+
+    /**
+     * The first element has been read from 'head'.
+     */
+    private void removed(Segment head) {
+        --size;
+
+        if (head.reader.position() == head.writer.position()) {
+            if (segments.size() > 1) {
+                recycle(segments.removeFirst());
+            } else {
+                // The queue is now empty, so start writing at the beginning of the only segment again.
+                head.rewind();
+            }
+        }
+    }
+
+
+    /**
+     * @return the number of bytes of direct memory held, including the spare segment.
+     */
+    int directCapacity() {
+        int capacity = spare == null ? 0 : spare.writer.capacity();
+        for (Segment segment : segments) {
+            capacity += segment.writer.capacity();
+        }
+        return capacity;
+    }
+
+
+    @Override
+    public void clear() {
+        segments.clear();
+        spare = null;
+        size = 0;
+    }
+
+
+    private Segment newSegment(int minimumSize) {
+        if (spare != null && spare.writer.capacity() >= minimumSize) {
+            Segment segment = spare;
+            spare = null;
+            return segment;
+        }
+        int capacity = Math.max(nextSegmentSize, minimumSize);
+        nextSegmentSize = Math.min(nextSegmentSize * 2, segmentSize);
+        return new Segment(ByteBuffer.allocateDirect(capacity));
+    }
+
+
+    private void recycle(Segment segment) {
+        // Keep the largest standard sized segment, oversized ones were for a single large element.
+        int capacity = segment.writer.capacity();
+        if (capacity <= segmentSize && (spare == null || capacity > spare.writer.capacity())) {
+            segment.rewind();
+            spare = segment;
+        }
+    }
+
+
+
+    /**
+     * A direct ByteBuffer with separate write and read positions.
+     */
+    private static final class Segment {
+        final ByteBuffer writer;
+        final ByteBuffer reader;
+
+        Segment(ByteBuffer buffer) {
+            writer = buffer;
+            reader = buffer.duplicate();
+        }
+
+        void rewind() {
+            // Go through Buffer so that this also runs on Java 8, where clear() returns Buffer.
+            ((Buffer) writer).clear();
+            ((Buffer) reader).clear();
+        }
+    }
+
+
+    /** A ByteArrayOutputStream whose buffer can be read without being copied. */
+    private static final class ScratchOutputStream extends ByteArrayOutputStream {
+        byte[] array() {
+            return buf;
+        }
+    }
+
+
+    /** A ByteArrayInputStream that can be pointed at new content without being reallocated. */
+    private static final class ScratchInputStream extends ByteArrayInputStream {
+        ScratchInputStream() {
+            super(new byte[64]);
+        }
+
+        /**
+         * @return a buffer of at least 'length' bytes, to be filled with the next element.
+         */
+        byte[] prepare(int length) {
+            if (buf.length < length) {
+                buf = new byte[Math.max(length, buf.length * 2)];
+            }
+            pos = 0;
+            count = length;
+            mark = 0;
+            return buf;
+        }
+    }
+
+}
@@ -0,0 +1,246 @@
+package ca.taylorsoftware.javagenerator;
+
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletionException;
+
+
+/**
+ * A generator for callback based sources, such as AsynchronousFileChannel reads, that has no background thread of its own.
+ * <br>
+ * Instead of implementing 'generator()', the descendant implements 'resume()' to start producing elements,
+ * e.g. by issuing an asynchronous read. Its completion handlers then call 'yieldReturn(...)', 'complete()'
+ * or 'fail(...)' from whatever thread they run on, and call 'mayContinue()' before issuing the next read.
+ * Once the queue is full 'mayContinue()' returns false and the source must stop; 'resume()' is called again,
+ * on the foreground thread, once the foreground has taken the queue down to half full.
+ * So thousands of such generators can share the handful of threads that run their completion handlers.
+ * <br>
+ * A failure is thrown from 'hasNext()', wrapped in a CompletionException, after the elements queued before it.
+ *
+ * @author Warren Taylor
+ * Created: 2026-10-19
+ * Copyright (c) 2026 Warren Taylor.  All right reserved.
+ *
+ * @param <T>
+ */
+public abstract class PushGenerator<T> implements AutoCloseable, Iterable<T>, Iterator<T> {
+    /** The default maximum number of elements buffered ahead of the foreground thread. */
+    private static final int DEFAULT_MAX_QUEUE_SIZE = 1024;
+
+    /** The maximum size of the Producer/Consumer queue. */
+    private final int maxQueueSize;
+
+    /** To reduce complexity carry the value from when 'hasNext()' is called to when 'next()' is called. */
+    private T nextForegroundValue;
+
+    /** The Producer/Consumer queue. */
+    private final Deque<T> yieldReturnQueue = new LinkedList<T>();
+
+    /** Is the source waiting for 'resume()'. The source has not started until the first 'hasNext()'. */
+    private boolean isPaused = true;
+
+    /** Has 'complete()' or 'fail(...)' been called. */
+    private volatile boolean isFinished = false;
+
+    /** The cause passed to 'fail(...)'. */
+    private Throwable failure;
+
+    /** Is foreground process cancelled. */
+    private volatile boolean isClosed = false;
+
+    /** Counts, and may report, this generator if it is let go of without being closed. */
+    private final GeneratorLeakDetector.Tracker tracker = new GeneratorLeakDetector.Tracker(this);
+
+
+    public PushGenerator() {
+        this(DEFAULT_MAX_QUEUE_SIZE);
+    }
+
+    public PushGenerator(int maxQueueSize) {
+        if (maxQueueSize < 1) {
+            String msg = "PushGenerator(maxQueueSize): maxQueueSize must be greater than or equal to 1!";
+            throw new IllegalArgumentException(msg);
+        }
+
+        this.maxQueueSize = maxQueueSize;
+    }
+
+
+    /**
+     * Further elements from the source are discarded. A descendant holding a resource,
+     * such as a channel, should override this to also release it.
+     */
+    @Override
+    public void close() {
+        if (!isClosed) {
+            isClosed = true;
+            tracker.done();
+
+            synchronized (yieldReturnQueue) {
+                yieldReturnQueue.clear();
+                yieldReturnQueue.notifyAll();
+            }
+        }
+    }
+
+
+    @Override
+    public Iterator<T> iterator() {
+        return this;
+    }
+
+
+    /**
+     * @throws CompletionException once the elements queued before 'fail(...)' was called have been taken.
+     */
+    @Override
+    public boolean hasNext() {
+        if (isClosed) {
+            return false;
+        }
+
+        boolean result = false;
+        nextForegroundValue = null;
+
+        // The first call starts the source.
+        resumeIfPaused();
+
+        synchronized (yieldReturnQueue) {
+            while (yieldReturnQueue.isEmpty()) {
+                if (isClosed || isFinished) {
+                    break;
+                }
+                try {
+                    yieldReturnQueue.wait();
+                } catch (InterruptedException ex) {
+                    // Ignore the InterruptedException and keep looping.
+                }
+            }
+
+            result = !isClosed && !yieldReturnQueue.isEmpty();
+            if (result) {
+                nextForegroundValue = yieldReturnQueue.removeFirst();
+            } else if (!isClosed && failure != null) {
+                throw new CompletionException(failure);
+            }
+        }//synchronized
+
+        if (result) {
+            resumeIfPaused();
+        }
+        return result;
+    }
+
+
+    @Override
+    public T next() {
+        if (isClosed) {
+            throw new NoSuchElementException();
+        }
+        return nextForegroundValue;
+    }
+
+
+    /**
+     * Start, or restart after 'mayContinue()' returned false, producing elements.
+     * <br>
+     * <b>Important! This method is called on the foreground thread, from 'hasNext()'.</b><br>
+     * It must not block; it should only start the next asynchronous operation.
+     * A RuntimeException thrown from here is passed to 'fail(...)'.
+     */
+    protected abstract void resume();
+
+
+    /**
+     * Add 'item' to the queue. May be called from any thread.
+     * Elements yielded after 'mayContinue()' has returned false are still queued,
+     * so a source may finish handing over everything from the operation that just completed.
+     * @return false, and 'item' is discarded, if this generator has been closed or has finished.
+     */
+    protected boolean yieldReturn(T item) {
+        synchronized (yieldReturnQueue) {
+            if (isClosed || isFinished) {
+                return false;
+            }
+            yieldReturnQueue.addLast(item);
+            yieldReturnQueue.notifyAll();
+        }
+        return true;
+    }
+
+
+    /**
+     * Called by the source when it is ready to produce more, e.g. before issuing its next read.
+     * @return true if the source may go ahead now. Otherwise the queue is full, or this generator
+     *  has been closed or has finished, and the source must stop; 'resume()' will be called when it may carry on.
+     */
+    protected boolean mayContinue() {
+        synchronized (yieldReturnQueue) {
+            if (isClosed || isFinished) {
+                return false;
+            }
+            if (yieldReturnQueue.size() < maxQueueSize) {
+                return true;
+            }
+            isPaused = true;
+            return false;
+        }
+    }
+
+
+    /**
+     * The source has no more elements. May be called from any thread.
+     */
+    protected void complete() {
+        synchronized (yieldReturnQueue) {
+            isFinished = true;
+            yieldReturnQueue.notifyAll();
+        }
+        tracker.done();
+    }
+
+
+    /**
+     * The source has failed. May be called from any thread.
+     * 'hasNext()' throws a CompletionException with 'cause' once the elements already queued have been taken.
+     * Ignored if this generator has already finished.
+     */
+    protected void fail(Throwable cause) {
+        synchronized (yieldReturnQueue) {
+            if (!isFinished) {
+                failure = cause;
+                isFinished = true;
+                yieldReturnQueue.notifyAll();
+            }
+        }
+        tracker.done();
+    }
+
+
+    protected boolean canKeepGoing() {
+        return !isClosed && !isFinished;
+    }
+
+
+    /**
+     * Call 'resume()' if the source is paused and the queue is no more than half full.
+     */
+    private void resumeIfPaused() {
+        synchronized (yieldReturnQueue) {
+            if (!isPaused || isClosed || isFinished || yieldReturnQueue.size() > maxQueueSize / 2) {
+                return;
+            }
+            isPaused = false;
+        }
+
+        // Outside the lock, since the source may yield straight away on this thread.
+        try {
+            resume();
+        } catch (RuntimeException ex) {
+            fail(ex);
+        }
+    }
+
+}
@@ -0,0 +1,512 @@
+package ca.taylorsoftware.javagenerator;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RejectedExecutionException;
+
+
+/**
+ * A generator for recursive, tree shaped, algorithms whose branches can be explored in parallel.
+ * <br>
+ * 'generator()' and every Step passed to 'fork(...)' run as tasks on a ForkJoinPool,
+ * and all of them may call 'yieldReturn(...)'. For example, a directory traversal
+ * can fork one step per sub-directory so that wide trees are explored on all cores.
+ * <br>
+ * With Ordering.UNORDERED elements are handed to the foreground thread as soon as they are produced.
+ * With Ordering.DEPTH_FIRST the foreground thread sees exactly the sequence it would have seen
+ * had every 'fork(step)' been replaced by 'step.run()', at the cost of buffering
+ * the output of steps that finish ahead of their turn.
+ * <br>
+ * The tasks start when the foreground thread first calls 'hasNext()'.
+ * A forked step waits in a queue, holding nothing but itself, until the buffer has room for its output;
+ * no more steps run at once than the pool's parallelism, plus, with Ordering.DEPTH_FIRST,
+ * the step whose output the foreground thread is waiting for. So however wide the tree,
+ * only that many pool workers are ever blocked waiting for the foreground thread.
+ * <br>
+ * A RuntimeException thrown by a step, or the pool refusing to run one, stops the remaining steps;
+ * 'hasNext()' then throws it, wrapped in a CompletionException, once the elements already buffered have been taken.
+ *
+ * @author Warren Taylor
+ * Created: 2026-10-19
+ * Copyright (c) 2026 Warren Taylor.  All right reserved.
+ *
+ * @param <T>
+ */
+public abstract class RecursiveGenerator<T> implements AutoCloseable, Iterable<T>, Iterator<T> {
+
+    public enum Ordering {UNORDERED, DEPTH_FIRST};
+
+    /** A unit of work that can be forked onto the pool. */
+    @FunctionalInterface
+    public interface Step {
+        void run() throws InterruptedException;
+    }
+
+    /** The default maximum number of buffered elements, enough to keep several workers busy. */
+    private static final int DEFAULT_MAX_QUEUE_SIZE = 64;
+
+    /** The maximum number of buffered elements. */
+    private final int maxQueueSize;
+
+    private final Ordering ordering;
+
+    private final ForkJoinPool pool;
+
+    /** The most forked steps run at once, the pool's parallelism. */
+    private final int maxRunningTasks;
+
+    private final Object syncObj = new Object();
+
+    /**
+     * The path from the root segment to the segment the foreground thread is currently reading.
+     * With Ordering.UNORDERED there is only ever the root segment.
+     */
+    private final Deque<Segment> cursor = new ArrayDeque<>();
+
+    /** The number of elements buffered across all segments. */
+    private int bufferedCount = 0;
+
+    /** The number of tasks that have been started or forked but have not finished. */
+    private int outstandingTasks = 0;
+
+    /** The number of tasks submitted to the pool that have not finished. */
+    private int runningTasks = 0;
+
+    /** Forked steps waiting for room to run, see 'launchPending()'. */
+    private final Deque<StepTask> pendingSteps = new ArrayDeque<>();
+
+    /** The first RuntimeException thrown by a task, or the pool's refusal to run one. */
+    private Throwable failure;
+
+    /** The segment that 'yieldReturn(...)' writes to, for the task running on the current thread. */
+    private final ThreadLocal<Segment> currentSegment = new ThreadLocal<>();
+
+    private boolean isStarted = false;
+
+    /** To reduce complexity carry the value from when 'hasNext()' is called to when 'next()' is called. */
+    private T nextForegroundValue;
+
+    /** Used to determine if the background tasks need to quit. */
+    private volatile boolean isThreadCancelled = false;
+
+    /** Is foreground process cancelled. */
+    private volatile boolean isClosed = false;
+
+    /** Counts, and may report, this generator if it is let go of without being closed. */
+    private final GeneratorLeakDetector.Tracker tracker = new GeneratorLeakDetector.Tracker(this);
+
+
+    public RecursiveGenerator() {
+        this(DEFAULT_MAX_QUEUE_SIZE, Ordering.UNORDERED);
+    }
+
+    public RecursiveGenerator(int maxQueueSize, Ordering ordering) {
+        this(maxQueueSize, ordering, ForkJoinPool.commonPool());
+    }
+
+    public RecursiveGenerator(int maxQueueSize, Ordering ordering, ForkJoinPool pool) {
+        if (maxQueueSize < 1) {
+            String msg = "RecursiveGenerator(maxQueueSize): maxQueueSize must be greater than or equal to 1!";
+            throw new IllegalArgumentException(msg);
+        }
+
+        this.maxQueueSize = maxQueueSize;
+        this.ordering = ordering;
+        this.pool = pool;
+        maxRunningTasks = Math.max(1, pool.getParallelism());
+    }
+
+
+    @Override
+    public void close() {
+        if (currentSegment.get() != null) {
+            // A background task is calling 'close()'.
+            if (!isThreadCancelled) {
+                synchronized (syncObj) {
+                    isThreadCancelled = true;
+                    syncObj.notifyAll();
+                }
+            }
+        } else {
+            // Foreground thread is calling 'close()'.
+            if (!isClosed) {
+                isClosed = true;
+                tracker.done();
+
+                synchronized (syncObj) {
+                    isThreadCancelled = true;
+                    // The steps that have not started never will.
+                    int dropped = pendingSteps.size();
+                    launchPending();
+                    if (dropped > 0 && outstandingTasks == 0) {
+                        tracker.workerFinished();
+                    }
+                    syncObj.notifyAll();
+                }
+            }
+        }
+    }
+
+
+    @Override
+    public Iterator<T> iterator() {
+        return this;
+    }
+
+
+    /**
+     * @throws CompletionException if a step failed, once the elements buffered before it did have been taken.
+     */
+    @Override
+    public boolean hasNext() {
+        if (isClosed) {
+            return false;
+        }
+
+        boolean result = false;
+        nextForegroundValue = null;
+
+        synchronized (syncObj) {
+            if (!isStarted) {
+                start();
+            }
+
+            while (true) {
+                Segment head = cursor.peekFirst();
+                if (head == null) {
+                    // Every segment has been completed and read.
+                    if (failure != null && !isClosed) {
+                        throw new CompletionException(failure);
+                    }
+                    break;
+                }
+
+                if (!head.entries.isEmpty()) {
+                    Object entry = head.entries.removeFirst();
+                    syncObj.notifyAll();
+                    if (entry instanceof Segment) {
+                        // Descend into the output of a forked step.
+                        cursor.addFirst((Segment) entry);
+                        continue;
+                    }
+
+                    @SuppressWarnings("unchecked")
+                    T value = (T) entry;
+                    --bufferedCount;
+                    // There is now room for another step's output.
+                    launchPending();
+                    nextForegroundValue = value;
+                    result = true;
+                    break;
+                }
+
+                if (head.isComplete) {
+                    cursor.removeFirst();
+                    syncObj.notifyAll();
+                    continue;
+                }
+
+                if (isClosed) {
+                    // If 'close()' has been called then drop out of this loop and return false.
+                    break;
+                }
+
+                // The segment being waited on may belong to a step that has not started.
+                launchPending();
+                try {
+                    syncObj.wait();
+                } catch (InterruptedException ex) {
+                    // Ignore the InterruptedException and keep looping.
+                }
+            }//while
+
+            result = result && !isClosed;
+        }//synchronized
+
+        return result;
+    }
+
+
+    @Override
+    public T next() {
+        if (isClosed) {
+            throw new NoSuchElementException();
+        }
+        return nextForegroundValue;
+    }
+
+
+    protected boolean canKeepGoing() {
+        return !isThreadCancelled;
+    }
+
+
+    /**
+     * The descendant implementation of this method is where all the work starts.
+     * It typically calls 'yieldReturn(...)' for the root and 'fork(...)' for each branch.
+     * <br>
+     * <b>Important! This method, and every forked Step, runs on the ForkJoinPool, possibly at the same time.</b><br>
+     * Keep things thread safe in the descendant implementation of this method.
+     * @throws InterruptedException
+     */
+    protected abstract void generator() throws InterruptedException;
+
+
+    /**
+     * Run 'step' as a separate task on the pool, once there is room for it; see the class comment.
+     * Must only be called from within 'generator()' or another forked Step. Never waits.
+     * @throws InterruptedException if this generator has been closed.
+     */
+    protected void fork(Step step) throws InterruptedException {
+        Segment parent = currentSegment.get();
+        if (parent == null) {
+            String msg = "fork(...) must only be called from within generator() or a forked step!";
+            throw new InterruptedException(msg);
+        }
+
+        if (isThreadCancelled) {
+            throw new InterruptedException();
+        }
+
+        synchronized (syncObj) {
+            StepTask task;
+            if (ordering == Ordering.DEPTH_FIRST) {
+                // The forked step's output goes here, in place, within the parent's output.
+                Segment segment = new Segment();
+                segment.isPending = true;
+                task = new StepTask(step, segment);
+                parent.entries.addLast(segment);
+            } else {
+                task = new StepTask(step, parent);
+            }
+            ++outstandingTasks;
+            pendingSteps.addLast(task);
+            launchPending();
+            syncObj.notifyAll();
+        }
+    }
+
+
+    protected void yieldReturn(T item) throws InterruptedException {
+        // Enforce that this method is only called from a background task.
+        Segment segment = currentSegment.get();
+        if (segment == null) {
+            String msg = "yieldReturn(...) must only be called from within generator() or a forked step!";
+            throw new InterruptedException(msg);
+        }
+
+        if (isThreadCancelled) {
+            throw new InterruptedException();
+        }
+
+        // If necessary, wait until space becomes available, letting the pool compensate
+        // for this blocked worker. At most 'maxRunningTasks' workers, and so compensating threads, are involved.
+        ForkJoinPool.managedBlock(new SpaceBlocker(segment));
+
+        synchronized (syncObj) {
+            if (isThreadCancelled) {
+                throw new InterruptedException();
+            }
+            segment.entries.addLast(item);
+            ++bufferedCount;
+            syncObj.notifyAll();
+        }
+    }
+
+
+    /**
+     * Must be called while synchronized on 'syncObj'.
+     */
+    private boolean mustWait(Segment segment) {
+        if (isThreadCancelled) {
+            return false;
+        }
+        if (segment == cursor.peekFirst()) {
+            // The foreground thread is waiting on this segment, so it may always make progress
+            // as long as its own output is within bounds.
+            return segment.entries.size() >= maxQueueSize;
+        }
+        return bufferedCount >= maxQueueSize;
+    }
+
+
+    /**
+     * Must be called while synchronized on 'syncObj'.
+     */
+    private void start() {
+        isStarted = true;
+        Segment root = new Segment();
+        cursor.addFirst(root);
+        outstandingTasks = 1;
+        tracker.workerStarted();
+        launch(new StepTask(this::generator, root));
+    }
+
+
+    /**
+     * Start the pending steps there is now room for: while fewer than 'maxRunningTasks' are running
+     * and the buffer is not full. The step whose output the foreground thread is waiting for is started
+     * regardless, since nothing else can make progress until it does. Once cancelled, the pending steps are dropped.
+     * <br>
+     * Must be called while synchronized on 'syncObj'.
+     */
+    private void launchPending() {
+        if (isThreadCancelled) {
+            for (StepTask task : pendingSteps) {
+                if (ordering == Ordering.DEPTH_FIRST) {
+                    task.segment.isComplete = true;
+                }
+            }
+            outstandingTasks -= pendingSteps.size();
+            pendingSteps.clear();
+            return;
+        }
+
+        Segment head = cursor.peekFirst();
+        if (head != null && head.isPending) {
+            for (Iterator<StepTask> pending = pendingSteps.iterator(); pending.hasNext(); ) {
+                StepTask task = pending.next();
+                if (task.segment == head) {
+                    pending.remove();
+                    launch(task);
+                    break;
+                }
+            }
+        }
+
+        while (!pendingSteps.isEmpty() && !isThreadCancelled
+                && runningTasks < maxRunningTasks && bufferedCount < maxQueueSize) {
+            launch(pendingSteps.removeFirst());
+        }
+    }
+
+
+    /**
+     * Must be called while synchronized on 'syncObj'.
+     */
+    private void launch(StepTask task) {
+        task.segment.isPending = false;
+        ++runningTasks;
+        try {
+            pool.execute(task);
+        } catch (RejectedExecutionException ex) {
+            failed(ex);
+            taskFinished(task.segment);
+        }
+    }
+
+
+    /**
+     * Stop the remaining steps; 'hasNext()' reports 'ex' once the buffered elements have been taken.
+     */
+    private void failed(Throwable ex) {
+        synchronized (syncObj) {
+            if (failure == null) {
+                failure = ex;
+            }
+            isThreadCancelled = true;
+            syncObj.notifyAll();
+        }
+    }
+
+
+    private void taskFinished(Segment segment) {
+        synchronized (syncObj) {
+            --outstandingTasks;
+            --runningTasks;
+            // Drops the pending steps if cancelled, which may leave none outstanding.
+            launchPending();
+            if (ordering == Ordering.DEPTH_FIRST || outstandingTasks == 0) {
+                segment.isComplete = true;
+            }
+            if (outstandingTasks == 0) {
+                tracker.workerFinished();
+            }
+            syncObj.notifyAll();
+        }
+    }
+
+
+
+    /**
+     * The output of one task (Ordering.DEPTH_FIRST) or of all tasks (Ordering.UNORDERED).
+     * Entries are either elements or, in place, the Segment of a forked step.
+     */
+    private static final class Segment {
+        final Deque<Object> entries = new LinkedList<>();
+        boolean isComplete = false;
+
+        /** With Ordering.DEPTH_FIRST, is the step whose output this is waiting in 'pendingSteps'. */
+        boolean isPending = false;
+    }
+
+
+    private final class StepTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Step step;
+        private final Segment segment;
+
+        StepTask(Step step, Segment segment) {
+            this.step = step;
+            this.segment = segment;
+        }
+
+        @Override
+        protected void compute() {
+            Segment previous = currentSegment.get();
+            currentSegment.set(segment);
+            try {
+                if (!isThreadCancelled) {
+                    step.run();
+                }
+            } catch (InterruptedException ex) {
+                // Ignore the InterruptedException.
+            } catch (RuntimeException ex) {
+                // Nothing joins these tasks, so hand it to the foreground thread. This includes
+                // the RejectedExecutionException from a pool that cannot compensate for a blocked worker.
+                failed(ex);
+            } finally {
+                if (previous == null) {
+                    currentSegment.remove();
+                } else {
+                    currentSegment.set(previous);
+                }
+                taskFinished(segment);
+            }
+        }
+    }
+
+
+    private final class SpaceBlocker implements ForkJoinPool.ManagedBlocker {
+        private final Segment segment;
+
+        SpaceBlocker(Segment segment) {
+            this.segment = segment;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            synchronized (syncObj) {
+                return !mustWait(segment);
+            }
+        }
+
+        @Override
+        public boolean block() throws InterruptedException {
+            synchronized (syncObj) {
+                while (mustWait(segment)) {
+                    syncObj.wait();
+                }
+            }
+            return true;
+        }
+    }
+
+}
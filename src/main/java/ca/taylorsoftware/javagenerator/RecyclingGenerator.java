@@ -0,0 +1,275 @@
+package ca.taylorsoftware.javagenerator;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Supplier;
+
+
+/**
+ * A generator whose elements are mutable slots that are allocated once and then recycled.
+ * <br>
+ * Instead of 'yieldReturn(new Event(...))' the generator calls 'claim()' to get the next free slot,
+ * fills it in place, then calls 'publish()' to hand it to the foreground thread.
+ * A slot is free again once the foreground thread has moved past it, that is when it next calls
+ * 'hasNext()'. So the element returned by 'next()' is only valid until the following 'hasNext()',
+ * and in the steady state no memory is allocated per element at all.
+ * <br>
+ * The background thread may run ahead of the foreground thread by up to 'ringSize' slots.
+ * It starts when the foreground thread first calls 'hasNext()'.
+ *
+ * @author Warren Taylor
+ * Created: 2026-10-19
+ * Copyright (c) 2026 Warren Taylor.  All right reserved.
+ *
+ * @param <T> the type of the (mutable) slots.
+ */
+public abstract class RecyclingGenerator<T> implements AutoCloseable, Iterable<T>, Iterator<T>, Runnable {
+
+    /** The pre-allocated slots, used in rotation. */
+    private final Object[] slots;
+
+    private final Object syncObj = new Object();
+
+    /** The background thread. */
+    private final Thread thread;
+
+    /** The number of slots published by the background thread. */
+    private long publishedCount = 0;
+
+    /** The number of slots taken by the foreground thread. */
+    private long consumedCount = 0;
+
+    /** The number of slots the foreground thread has moved past, and so are free again. */
+    private long releasedCount = 0;
+
+    /** Has the background thread claimed a slot that it has not yet published. */
+    private boolean isClaimed = false;
+
+    private boolean isStarted = false;
+
+    /** To reduce complexity carry the value from when 'hasNext()' is called to when 'next()' is called. */
+    private T nextForegroundValue;
+
+    /** Used to determine if the background thread needs to quit. */
+    private volatile boolean isThreadCancelled = false;
+
+    /** Is foreground process cancelled. */
+    private volatile boolean isClosed = false;
+
+    /** Counts, and may report, this generator if it is let go of without being closed. */
+    private final GeneratorLeakDetector.Tracker tracker = new GeneratorLeakDetector.Tracker(this);
+
+
+    /**
+     * @param ringSize the number of slots.
+     * @param slotFactory called 'ringSize' times, here, to allocate the slots.
+     */
+    public RecyclingGenerator(int ringSize, Supplier<T> slotFactory) {
+        if (ringSize < 1) {
+            String msg = "RecyclingGenerator(ringSize): ringSize must be greater than or equal to 1!";
+            throw new IllegalArgumentException(msg);
+        }
+
+        slots = new Object[ringSize];
+        for (int index = 0; index < ringSize; ++index) {
+            slots[index] = slotFactory.get();
+        }
+        thread = GeneratorLeakDetector.newBackgroundThread(this);
+    }
+
+
+    @Override
+    public void close() {
+        if (Thread.currentThread() == thread) {
+            // Background thread is calling 'close()'.
+            if (!isThreadCancelled) {
+                synchronized (syncObj) {
+                    isThreadCancelled = true;
+                    syncObj.notifyAll();
+                }
+            }
+        } else {
+            // Foreground thread is calling 'close()'.
+            if (!isClosed) {
+                isClosed = true;
+                tracker.done();
+
+                synchronized (syncObj) {
+                    isThreadCancelled = true;
+                    syncObj.notifyAll();
+                }
+            }
+        }
+    }
+
+
+    @Override
+    public Iterator<T> iterator() {
+        return this;
+    }
+
+
+    @Override
+    public boolean hasNext() {
+        if (isClosed) {
+            return false;
+        }
+
+        boolean result = false;
+        nextForegroundValue = null;
+
+        synchronized (syncObj) {
+            if (!isStarted) {
+                isStarted = true;
+                thread.start();
+            }
+
+            // The foreground thread is done with the slot returned by the previous 'next()'.
+            if (releasedCount != consumedCount) {
+                releasedCount = consumedCount;
+                syncObj.notifyAll();
+            }
+
+            // If necessary, wait for a slot to be published.
+            while (publishedCount == consumedCount) {
+                if (isClosed || isThreadCancelled) {
+                    break;
+                }
+
+                try {
+                    syncObj.wait();
+                } catch (InterruptedException ex) {
+                    // Ignore the InterruptedException and keep looping.
+                }
+            }
+
+            result = !isClosed && publishedCount != consumedCount;
+            if (result) {
+                @SuppressWarnings("unchecked")
+                T slot = (T) slots[(int) (consumedCount % slots.length)];
+                nextForegroundValue = slot;
+                ++consumedCount;
+            }
+        }//synchronized
+
+        return result;
+    }
+
+
+    /**
+     * @return the next slot. It is only valid until the next call to 'hasNext()'.
+     */
+    @Override
+    public T next() {
+        if (isClosed) {
+            throw new NoSuchElementException();
+        }
+        return nextForegroundValue;
+    }
+
+
+    @Override
+    public void run() {
+        tracker.workerStarted();
+        try {
+            if (!isThreadCancelled) {
+                generator();
+            }
+        } catch (InterruptedException ex) {
+            // Ignore the InterruptedException.
+        } finally {
+            synchronized (syncObj) {
+                isThreadCancelled = true;
+                syncObj.notifyAll();
+            }
+            tracker.workerFinished();
+        }
+    }
+
+
+    protected boolean canKeepGoing() {
+        return !isThreadCancelled;
+    }
+
+
+    /**
+     * The descendant implementation of this method is where all the work happens.
+     * <br>
+     * <b>Important! This method runs in a background thread.</b><br>
+     * Keep things thread safe in the descendant implementation of this method.
+     * @throws InterruptedException
+     */
+    protected abstract void generator() throws InterruptedException;
+
+
+    /**
+     * Wait for the next slot to become free and return it, to be filled in and then published.
+     * The slot still holds whatever was written to it the last time it was used.
+     */
+    protected T claim() throws InterruptedException {
+        // Enforce that this method is only called from the background 'thread'.
+        if (Thread.currentThread() != thread) {
+            String msg = "claim() must only be called from the background generator thread!";
+            throw new InterruptedException(msg);
+        }
+
+        if (isThreadCancelled) {
+            throw new InterruptedException();
+        }
+
+        synchronized (syncObj) {
+            if (isClaimed) {
+                String msg = "claim(): the previously claimed slot must be published first!";
+                throw new IllegalStateException(msg);
+            }
+
+            // If necessary, wait until the foreground thread has moved past the oldest slot.
+            while (publishedCount - releasedCount >= slots.length) {
+                if (isThreadCancelled) {
+                    break;
+                }
+                try {
+                    syncObj.wait();
+                } catch (InterruptedException ex) {
+                    // Ignore the InterruptedException and keep looping.
+                }
+            }
+
+            if (isThreadCancelled) {
+                throw new InterruptedException();
+            }
+            isClaimed = true;
+
+            @SuppressWarnings("unchecked")
+            T slot = (T) slots[(int) (publishedCount % slots.length)];
+            return slot;
+        }
+    }
+
+
+    /**
+     * Hand the slot returned by the last 'claim()' to the foreground thread.
+     */
+    protected void publish() throws InterruptedException {
+        // Enforce that this method is only called from the background 'thread'.
+        if (Thread.currentThread() != thread) {
+            String msg = "publish() must only be called from the background generator thread!";
+            throw new InterruptedException(msg);
+        }
+
+        synchronized (syncObj) {
+            if (!isClaimed) {
+                String msg = "publish(): no slot has been claimed!";
+                throw new IllegalStateException(msg);
+            }
+            if (isThreadCancelled) {
+                throw new InterruptedException();
+            }
+
+            isClaimed = false;
+            ++publishedCount;
+            syncObj.notifyAll();
+        }
+    }
+
+}
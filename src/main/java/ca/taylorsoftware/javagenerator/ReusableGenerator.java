@@ -0,0 +1,355 @@
+package ca.taylorsoftware.javagenerator;
+
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.NoSuchElementException;
+
+
+/**
+ * A generator that is constructed once and then run any number of times, each time with a different input.
+ * <br>
+ * Each call to 'open(input)' starts a new Session which runs 'generator(input)' on the same,
+ * already running, background thread. Between sessions that thread stays parked and ready,
+ * so request-scoped generators no longer pay for a new object and a new thread per request.
+ * Only one session may be open at a time. Like ThreadedGenerator, the background thread
+ * may run ahead of the foreground thread by up to 'maxQueueSize' elements.
+ * <br>
+ * The background thread is a daemon thread because an idle instance is expected to live
+ * as long as the application does. Closing the ReusableGenerator stops it.
+ *
+ * @author Warren Taylor
+ * Created: 2026-10-19
+ * Copyright (c) 2026 Warren Taylor.  All right reserved.
+ *
+ * @param <I> the input given to each session.
+ * @param <T> the type of the generated elements.
+ */
+public abstract class ReusableGenerator<I, T> implements AutoCloseable, Runnable {
+    /** The default maximum number of elements allowed in yieldReturnQueue. */
+    private static final int DEFAULT_MAX_QUEUE_SIZE = 1;
+
+    /** The maximum number of elements allowed in yieldReturnQueue. */
+    private final int maxQueueSize;
+
+    /** The Producer/Consumer queue, shared by all sessions. Also used as the lock for everything below. */
+    private final Deque<T> yieldReturnQueue = new LinkedList<T>();
+
+    /** The background thread. */
+    private final Thread thread;
+
+    /** Identifies the current (or most recent) session. */
+    private long sessionId = 0;
+
+    /** The input waiting to be picked up by the background thread. */
+    private I pendingInput;
+    private boolean hasPendingInput = false;
+
+    /** Is a session open on the foreground side. */
+    private boolean isSessionOpen = false;
+
+    /** Has 'generator(input)' returned for the current session. */
+    private boolean isSessionFinished = true;
+
+    /** Is the background thread waiting for the next session. */
+    private boolean isThreadIdle = false;
+
+    /** Used to determine if the current session's generator needs to quit. */
+    private volatile boolean isSessionCancelled = false;
+
+    /** Is this generator closed for good. */
+    private volatile boolean isClosed = false;
+
+
+    public ReusableGenerator() {
+        this(DEFAULT_MAX_QUEUE_SIZE);
+    }
+
+    public ReusableGenerator(int maxQueueSize) {
+        if (maxQueueSize < 1) {
+            String msg = "ReusableGenerator(maxQueueSize): maxQueueSize must be greater than or equal to 1!";
+            throw new IllegalArgumentException(msg);
+        }
+
+        this.maxQueueSize = maxQueueSize;
+        thread = new Thread(this);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+
+    /**
+     * Start generating elements for 'input'.
+     * If the previous session's generator is still unwinding, wait for it to finish first.
+     * @throws IllegalStateException if a session is already open or this generator has been closed.
+     */
+    public Session open(I input) {
+        long id;
+
+        synchronized (yieldReturnQueue) {
+            if (isSessionOpen) {
+                String msg = "open(input): the previous session must be closed first!";
+                throw new IllegalStateException(msg);
+            }
+
+            // Wait for the background thread to be ready for the next session.
+            while (!isThreadIdle && !isClosed) {
+                try {
+                    yieldReturnQueue.wait();
+                } catch (InterruptedException ex) {
+                    // Ignore the InterruptedException and keep looping.
+                }
+            }
+            if (isClosed) {
+                String msg = "open(input): this generator has been closed!";
+                throw new IllegalStateException(msg);
+            }
+
+            yieldReturnQueue.clear();
+            id = ++sessionId;
+            pendingInput = input;
+            hasPendingInput = true;
+            isSessionOpen = true;
+            isSessionFinished = false;
+            isSessionCancelled = false;
+            yieldReturnQueue.notifyAll();
+        }//synchronized
+
+        Session session = new Session(id);
+        Throwable creationSite = GeneratorLeakDetector.captureCreationSite();
+        GeneratorLeakDetector.track(session, () -> sessionReclaimed(id, creationSite));
+        return session;
+    }
+
+
+    @Override
+    public void close() {
+        if (Thread.currentThread() == thread) {
+            // Background thread is calling 'close()', which only ends the current session.
+            if (!isSessionCancelled) {
+                synchronized (yieldReturnQueue) {
+                    isSessionCancelled = true;
+                    yieldReturnQueue.notifyAll();
+                }
+            }
+        } else {
+            // Foreground thread is calling 'close()'.
+            if (!isClosed) {
+                synchronized (yieldReturnQueue) {
+                    isClosed = true;
+                    isSessionOpen = false;
+                    isSessionCancelled = true;
+                    yieldReturnQueue.clear();
+                    yieldReturnQueue.notifyAll();
+                }
+            }
+        }
+    }
+
+
+    @Override
+    public void run() {
+        GeneratorLeakDetector.workerStarted();
+        try {
+            while (true) {
+                I input;
+
+                synchronized (yieldReturnQueue) {
+                    //---------------------------------------------------------------------------------------
+                    // Park until the foreground thread opens the next session.
+                    //---------------------------------------------------------------------------------------
+                    isThreadIdle = true;
+                    yieldReturnQueue.notifyAll();
+                    while (!hasPendingInput && !isClosed) {
+                        try {
+                            yieldReturnQueue.wait();
+                        } catch (InterruptedException ex) {
+                            // Ignore the InterruptedException and keep looping.
+                        }
+                    }
+                    if (isClosed) {
+                        break;
+                    }
+
+                    input = pendingInput;
+                    pendingInput = null;
+                    hasPendingInput = false;
+                    isThreadIdle = false;
+                }//synchronized
+
+                try {
+                    generator(input);
+                } catch (InterruptedException ex) {
+                    // Ignore the InterruptedException, the session has been cancelled.
+                } catch (RuntimeException ex) {
+                    // Keep the background thread alive for the next session.
+                    ex.printStackTrace();
+                } finally {
+                    synchronized (yieldReturnQueue) {
+                        isSessionFinished = true;
+                        yieldReturnQueue.notifyAll();
+                    }
+                }
+            }//while
+        } finally {
+            synchronized (yieldReturnQueue) {
+                isThreadIdle = true;
+                yieldReturnQueue.notifyAll();
+            }
+            GeneratorLeakDetector.workerFinished();
+        }
+    }
+
+
+    protected boolean canKeepGoing() {
+        return !isSessionCancelled;
+    }
+
+
+    /**
+     * The descendant implementation of this method is where all the work happens.
+     * It is called once per session with that session's input.
+     * <br>
+     * <b>Important! This method runs in a background thread.</b><br>
+     * Keep things thread safe in the descendant implementation of this method.
+     * Any state kept in fields must be reset at the start of each call.
+     * @throws InterruptedException
+     */
+    protected abstract void generator(I input) throws InterruptedException;
+
+
+    protected void yieldReturn(T item) throws InterruptedException {
+        // Enforce that this method is only called from the background 'thread'.
+        if (Thread.currentThread() != thread) {
+            String msg = "yieldReturn(...) must only be called from the background generator thread!";
+            throw new InterruptedException(msg);
+        }
+
+        if (isSessionCancelled) {
+            throw new InterruptedException();
+        }
+
+        synchronized (yieldReturnQueue) {
+            // If necessary, wait until space becomes available in the queue.
+            while (yieldReturnQueue.size() >= maxQueueSize) {
+                if (isSessionCancelled) {
+                    break;
+                }
+                try {
+                    yieldReturnQueue.wait();
+                } catch (InterruptedException ex) {
+                    // Ignore the InterruptedException and keep looping.
+                }
+            }
+
+            if (isSessionCancelled) {
+                throw new InterruptedException();
+            }
+            yieldReturnQueue.addLast(item);
+            yieldReturnQueue.notifyAll();
+        }
+    }
+
+
+    private void endSession(long id) {
+        synchronized (yieldReturnQueue) {
+            if (id == sessionId && isSessionOpen) {
+                isSessionOpen = false;
+                isSessionCancelled = true;
+                yieldReturnQueue.clear();
+                yieldReturnQueue.notifyAll();
+            }
+        }
+    }
+
+
+    private void sessionReclaimed(long id, Throwable creationSite) {
+        boolean isLeaked;
+        synchronized (yieldReturnQueue) {
+            isLeaked = id == sessionId && isSessionOpen && !isSessionFinished;
+        }
+        if (isLeaked) {
+            GeneratorLeakDetector.reportLeak(getClass(), creationSite);
+        }
+        endSession(id);
+    }
+
+
+
+    /**
+     * One run of 'generator(input)' as seen from the foreground thread.
+     * Closing a session cancels its generator but leaves the background thread ready for the next one.
+     */
+    public final class Session implements AutoCloseable, Iterable<T>, Iterator<T> {
+        private final long id;
+
+        /** To reduce complexity carry the value from when 'hasNext()' is called to when 'next()' is called. */
+        private T nextForegroundValue;
+
+        /** Is this session closed. */
+        private boolean isClosed = false;
+
+        private Session(long id) {
+            this.id = id;
+        }
+
+
+        @Override
+        public void close() {
+            if (!isClosed) {
+                isClosed = true;
+                endSession(id);
+            }
+        }
+
+
+        @Override
+        public Iterator<T> iterator() {
+            return this;
+        }
+
+
+        @Override
+        public boolean hasNext() {
+            if (isClosed) {
+                return false;
+            }
+
+            boolean result = false;
+            nextForegroundValue = null;
+
+            synchronized (yieldReturnQueue) {
+                // If necessary, wait for an item to be added to the queue.
+                while (yieldReturnQueue.isEmpty()) {
+                    if (id != sessionId || isSessionFinished || isSessionCancelled) {
+                        break;
+                    }
+
+                    try {
+                        yieldReturnQueue.wait();
+                    } catch (InterruptedException ex) {
+                        // Ignore the InterruptedException and keep looping.
+                    }
+                }
+
+                result = id == sessionId && isSessionOpen && !yieldReturnQueue.isEmpty();
+                if (result) {
+                    nextForegroundValue = yieldReturnQueue.removeFirst();
+                    yieldReturnQueue.notifyAll();
+                }
+            }//synchronized
+
+            return result;
+        }
+
+
+        @Override
+        public T next() {
+            if (isClosed) {
+                throw new NoSuchElementException();
+            }
+            return nextForegroundValue;
+        }
+    }
+
+}
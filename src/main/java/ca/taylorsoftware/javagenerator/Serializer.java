@@ -0,0 +1,26 @@
+package ca.taylorsoftware.javagenerator;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+
+/**
+ * Converts elements to and from bytes so that they can be buffered outside of the Java heap.
+ * <br>
+ * 'deserialize(...)' must read back exactly what 'serialize(...)' wrote.
+ * Both are called while the generator holds its internal lock, so keep them quick.
+ *
+ * @author Warren Taylor
+ * Created: 2026-10-19
+ * Copyright (c) 2026 Warren Taylor.  All right reserved.
+ *
+ * @param <T>
+ */
+public interface Serializer<T> {
+
+    void serialize(T item, DataOutput out) throws IOException;
+
+    T deserialize(DataInput in) throws IOException;
+
+}
@@ -0,0 +1,214 @@
+package ca.taylorsoftware.javagenerator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.NoSuchElementException;
+
+
+/**
+ * An ElementQueue that is never full: the first 'maxInMemory' elements are held on the heap,
+ * any more are serialized to temporary segment files and read back, in order, as the queue drains.
+ * <br>
+ * Once an element has been spilled every following element is spilled as well, until the
+ * spilled elements have all been read back, so that the order is preserved.
+ * Each segment file is deleted as soon as it has been read back, and all of them by 'clear()'.
+ *
+ * @author Warren Taylor
+ * Created: 2026-10-19
+ * Copyright (c) 2026 Warren Taylor.  All right reserved.
+ *
+ * @param <T>
+ */
+final class SpillingElementQueue<T> implements ElementQueue<T> {
+    /** The default number of bytes written to a segment file before starting the next one. */
+    static final long DEFAULT_SEGMENT_SIZE = 64L << 20;
+
+    private final int maxInMemory;
+    private final Serializer<T> serializer;
+    private final Path spillDirectory;
+    private final long segmentSize;
+
+    private final Deque<T> memory = new ArrayDeque<>();
+
+    /** The first segment is read from, the last segment is written to. */
+    private final Deque<Segment> segments = new ArrayDeque<>();
+
+    private int size = 0;
+
+
+    /**
+     * @param spillDirectory where to create the segment files, or null for the default temporary-file directory.
+     */
+    SpillingElementQueue(int maxInMemory, Serializer<T> serializer, Path spillDirectory) {
+        this(maxInMemory, serializer, spillDirectory, DEFAULT_SEGMENT_SIZE);
+    }
+
+    SpillingElementQueue(int maxInMemory, Serializer<T> serializer, Path spillDirectory, long segmentSize) {
+        if (maxInMemory < 1) {
+            String msg = "SpillingElementQueue(maxInMemory): maxInMemory must be greater than or equal to 1!";
+            throw new IllegalArgumentException(msg);
+        }
+        if (serializer == null) {
+            String msg = "SpillingElementQueue(serializer): serializer must not be null!";
+            throw new IllegalArgumentException(msg);
+        }
+
+        this.maxInMemory = maxInMemory;
+        this.serializer = serializer;
+        this.spillDirectory = spillDirectory;
+        this.segmentSize = segmentSize;
+    }
+
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+
+    @Override
+    public boolean isFull(int limit) {
+        // Anything beyond what fits in memory goes to disk, so never keep the producer waiting.
+        return false;
+    }
+
+
+    /** @return the number of elements currently held in segment files. */
+    int spilledSize() {
+        return size - memory.size();
+    }
+
+
+    @Override
+    public void addLast(T item) {
+        if (segments.isEmpty() && memory.size() < maxInMemory) {
+            memory.addLast(item);
+        } else {
+            try {
+                Segment tail = segments.peekLast();
+                if (tail == null || tail.out == null || tail.out.size() >= segmentSize) {
+                    if (tail != null && tail.out != null) {
+                        // Finish writing this segment; it is read back from the file from now on.
+                        tail.out.close();
+                        tail.out = null;
+                    }
+                    tail = new Segment(Files.createTempFile(spillDirectory, "JavaGenerator-", ".spill"));
+                    segments.addLast(tail);
+                }
+                serializer.serialize(item, tail.out);
+                ++tail.written;
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+        ++size;
+    }
+
+
+    @Override
+    public T removeFirst() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+
+        T item;
+        if (!memory.isEmpty()) {
+            item = memory.removeFirst();
+        } else {
+            Segment head = segments.peekFirst();
+            try {
+                if (head.out != null) {
+                    // Still being written to, so make sure what has been written so far is in the file.
+                    head.out.flush();
+                }
+                if (head.in == null) {
+                    head.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(head.path)));
+                }
+                item = serializer.deserialize(head.in);
+                ++head.read;
+
+                if (head.read == head.written) {
+                    // Fully read back. If it is the last segment too then the next element may go to memory again.
+                    segments.removeFirst();
+                    head.delete();
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+        --size;
+        return item;
+    }
+
+
+    @Override
+    public void discardFirst() {
+        // Spilled elements are not framed, so they can only be skipped over by reading them.
+        removeFirst();
+    }
+
+
+    @Override
+    public void clear() {
+        memory.clear();
+        while (!segments.isEmpty()) {
+            try {
+                segments.removeFirst().delete();
+            } catch (IOException ex) {
+                // Carry on deleting the rest.
+            }
+        }
+        size = 0;
+    }
+
+
+
+    /**
+     * A temporary file of serialized elements.
+     */
+    private static final class Segment {
+        final Path path;
+
+        /** Null once this segment is no longer being written to. */
+        DataOutputStream out;
+
+        DataInputStream in;
+
+        /** The number of elements written to, and read back from, this segment. */
+        int written = 0;
+        int read = 0;
+
+        Segment(Path path) throws IOException {
+            this.path = path;
+            out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)));
+        }
+
+        void delete() throws IOException {
+            try {
+                if (out != null) {
+                    out.close();
+                }
+                if (in != null) {
+                    in.close();
+                }
+            } finally {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+}
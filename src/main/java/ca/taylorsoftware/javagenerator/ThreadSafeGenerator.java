@@ -1,7 +1,11 @@
 package ca.taylorsoftware.javagenerator;
 
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 
 /**
@@ -26,19 +30,49 @@ public abstract class ThreadSafeGenerator<T> implements AutoCloseable, Iterable<
     /** The background thread. */
     private final Thread thread;
 
+    /** The scope this generator belongs to, if any. */
+    private final GeneratorScope scope;
+
     /** The next value that is ready. */
     private T nextValue = null;
 
+    /** The number of elements still to be discarded by 'yieldReturn(...)', see 'skip(n)'. */
+    private long pendingSkip = 0;
+
+    /** The operators fused into 'yieldReturn(...)', if any. Once set, only the pipeline may take elements. */
+    private volatile GeneratorPipeline<T> pipeline;
+
+    /** Has the foreground thread started iterating. */
+    private volatile boolean isIterating = false;
+
+    private boolean isStarted = false;
+
     /** Used to determine if the background thread needs to quit. */
     private volatile boolean isThreadCancelled = false;
 
     /** Is foreground process cancelled. */
     private volatile boolean isClosed = false;
 
+    /** Counts, and may report, this generator if it is let go of without being closed. */
+    private final GeneratorLeakDetector.Tracker tracker = new GeneratorLeakDetector.Tracker(this);
+
 
     public ThreadSafeGenerator() {
-        thread = new Thread(this);
-        thread.start();
+        this(null);
+    }
+
+    /**
+     * Join 'scope', which starts the background thread once its thread budget allows.
+     * Without a scope the background thread is started when the foreground thread first calls 'hasNext()'.
+     * @param scope the scope to join, or null to not belong to a scope.
+     */
+    public ThreadSafeGenerator(GeneratorScope scope) {
+        this.scope = scope;
+        thread = GeneratorLeakDetector.newBackgroundThread(this);
+        if (scope != null) {
+            isStarted = true;
+            scope.join(this, thread, false);
+        }
     }
 
 
@@ -56,6 +90,7 @@ public abstract class ThreadSafeGenerator<T> implements AutoCloseable, Iterable<
             // Foreground thread is calling 'close()'.
             if (!isClosed) {
                 isClosed = true;
+                tracker.done();
 
                 if (!isThreadCancelled) {
                     synchronized (syncObj) {
@@ -68,14 +103,52 @@ public abstract class ThreadSafeGenerator<T> implements AutoCloseable, Iterable<
     }
 
 
+    /**
+     * @throws IllegalStateException if operators have been applied; iterate the GeneratorPipeline they returned instead.
+     */
     @Override
     public Iterator<T> iterator() {
+        checkNoPipeline();
         return this;
     }
 
 
+    /**
+     * Once operators have been applied the elements handed over are their output, which need not be a T.
+     */
+    private void checkNoPipeline() {
+        if (pipeline != null) {
+            String msg = "Operators have been applied, so iterate the GeneratorPipeline they returned instead of the generator!";
+            throw new IllegalStateException(msg);
+        }
+    }
+
+
+    /**
+     * @throws IllegalStateException if operators have been applied; iterate the GeneratorPipeline they returned instead.
+     */
     @Override
     public boolean hasNext() {
+        checkNoPipeline();
+        return takeNext();
+    }
+
+
+    /**
+     * @throws IllegalStateException if operators have been applied; iterate the GeneratorPipeline they returned instead.
+     */
+    @Override
+    public T next() {
+        checkNoPipeline();
+        return nextValue();
+    }
+
+
+    /**
+     * The body of 'hasNext()', shared with the GeneratorPipeline.
+     */
+    private boolean takeNext() {
+        isIterating = true;
         if (isClosed) {
             return false;
         }
@@ -83,6 +156,10 @@ public abstract class ThreadSafeGenerator<T> implements AutoCloseable, Iterable<
         boolean result = false;
 
         synchronized (syncObj) {
+            if (!isStarted) {
+                isStarted = true;
+                thread.start();
+            }
             if (whoHasTheBall == WhoHasTheBall.FOREGROUND) {
                 whoHasTheBall = WhoHasTheBall.BACKGROUND;
                 syncObj.notifyAll();
@@ -110,8 +187,10 @@ public abstract class ThreadSafeGenerator<T> implements AutoCloseable, Iterable<
     }
 
 
-    @Override
-    public T next() {
+    /**
+     * The body of 'next()', shared with the GeneratorPipeline.
+     */
+    private T nextValue() {
         if (isClosed) {
             throw new NoSuchElementException();
         }
@@ -122,8 +201,85 @@ public abstract class ThreadSafeGenerator<T> implements AutoCloseable, Iterable<
     }
 
 
+    /**
+     * Apply 'mapper' to each element on the background thread. See GeneratorPipeline.
+     * @throws IllegalStateException if iteration has started or an operator has already been applied to this generator.
+     */
+    public <R> GeneratorPipeline<R> map(Function<? super T, ? extends R> mapper) {
+        return pipeline().map(mapper);
+    }
+
+
+    /**
+     * Drop the elements not matching 'predicate' on the background thread. See GeneratorPipeline.
+     */
+    public GeneratorPipeline<T> filter(Predicate<? super T> predicate) {
+        return pipeline().filter(predicate);
+    }
+
+
+    /**
+     * Replace each element with those returned by 'mapper', on the background thread. See GeneratorPipeline.
+     */
+    public <R> GeneratorPipeline<R> flatMap(Function<? super T, ? extends Iterable<? extends R>> mapper) {
+        return pipeline().flatMap(mapper);
+    }
+
+
+    /**
+     * End the generator at the first element not matching 'predicate'. See GeneratorPipeline.
+     */
+    public GeneratorPipeline<T> takeWhile(Predicate<? super T> predicate) {
+        return pipeline().takeWhile(predicate);
+    }
+
+
+    /**
+     * End the generator once 'maxSize' elements have been generated. See GeneratorPipeline.
+     */
+    public GeneratorPipeline<T> limit(long maxSize) {
+        return pipeline().limit(maxSize);
+    }
+
+
+    private GeneratorPipeline<T> pipeline() {
+        synchronized (syncObj) {
+            if (pipeline != null) {
+                // Like a Stream, the generator is used up by the first operator.
+                String msg = "An operator has already been applied to this generator; apply further ones to the GeneratorPipeline it returned!";
+                throw new IllegalStateException(msg);
+            }
+            PipelineHost host = new PipelineHost();
+            // Checked here as well, so that a refused operator leaves the generator iterable.
+            host.checkNotIterating();
+            pipeline = new GeneratorPipeline<T>(host);
+            return pipeline;
+        }
+    }
+
+
+    /**
+     * Discard the next 'n' elements. They are dropped by 'yieldReturn(...)', which then carries on
+     * computing the next value rather than handing each skipped one to the foreground thread.
+     * An element already announced by 'hasNext()' is not among them.
+     * <br>
+     * The generator may fast-forward its own computation by checking 'pendingSkip()'.
+     */
+    public void skip(long n) {
+        if (n < 0) {
+            String msg = "skip(n): n must not be negative!";
+            throw new IllegalArgumentException(msg);
+        }
+
+        synchronized (syncObj) {
+            pendingSkip += n;
+        }
+    }
+
+
     @Override
     public void run() {
+        tracker.workerStarted();
         try {
             synchronized (syncObj) {
                 //---------------------------------------------------------------------------------------
@@ -159,6 +315,10 @@ public abstract class ThreadSafeGenerator<T> implements AutoCloseable, Iterable<
                 whoHasTheBall = WhoHasTheBall.FOREGROUND;
                 syncObj.notifyAll();
             }
+            if (scope != null) {
+                scope.leave(this, false);
+            }
+            tracker.workerFinished();
         }
     }
 
@@ -168,6 +328,29 @@ public abstract class ThreadSafeGenerator<T> implements AutoCloseable, Iterable<
     }
 
 
+    /**
+     * @return the number of upcoming elements the foreground thread has asked to skip.
+     * A generator that can cheaply fast-forward may do so and report it with 'skipped(count)';
+     * otherwise 'yieldReturn(...)' simply discards them.
+     */
+    protected long pendingSkip() {
+        synchronized (syncObj) {
+            // With operators the count is of their output, which the generator cannot fast-forward by.
+            return pipeline == null ? pendingSkip : 0;
+        }
+    }
+
+
+    /**
+     * Report that the generator fast-forwarded past 'count' elements without yielding them.
+     */
+    protected void skipped(long count) {
+        synchronized (syncObj) {
+            pendingSkip -= Math.min(Math.max(count, 0), pendingSkip);
+        }
+    }
+
+
     /**
      * The descendant implementation of this method is where all the work happens.
      * <br>
@@ -189,10 +372,33 @@ public abstract class ThreadSafeGenerator<T> implements AutoCloseable, Iterable<
             throw new InterruptedException();
         }
 
+        synchronized (syncObj) {
+            if (pipeline != null) {
+                if (!pipeline.push(item)) {
+                    // 'limit(n)' or 'takeWhile(...)' has let through all it ever will.
+                    throw new InterruptedException();
+                }
+                return;
+            }
+        }
+        handOff(item);
+    }
+
+
+    /**
+     * Hand 'item' to the foreground thread, unless it is to be skipped,
+     * and wait for the foreground thread to ask for the next one.
+     */
+    private void handOff(T item) throws InterruptedException {
         synchronized (syncObj) {
             if (isThreadCancelled) {
                 throw new InterruptedException();
             }
+            if (pendingSkip > 0) {
+                // Skipped, so keep the ball and go on to compute the next value.
+                --pendingSkip;
+                return;
+            }
 
             //---------------------------------------------------------------------------------------
             // All of the surrounding code is just to set these values safely and at the right time.
@@ -224,4 +430,67 @@ public abstract class ThreadSafeGenerator<T> implements AutoCloseable, Iterable<
         }//synchronized
     }
 
+
+    /**
+     * Lets a GeneratorPipeline fuse its operators into 'yieldReturn(...)'.
+     */
+    private final class PipelineHost implements GeneratorPipeline.Host {
+        private final GeneratorPipeline.Stage sink = new GeneratorPipeline.Stage() {
+            @Override
+            @SuppressWarnings("unchecked")
+            boolean push(Object item) throws InterruptedException {
+                handOff((T) item);
+                return true;
+            }
+        };
+
+        @Override
+        public Object lock() {
+            return syncObj;
+        }
+
+        @Override
+        public void checkNotIterating() {
+            if (isIterating) {
+                String msg = "Operators must be applied before iteration starts!";
+                throw new IllegalStateException(msg);
+            }
+        }
+
+        @Override
+        public GeneratorPipeline.Stage sink() {
+            return sink;
+        }
+
+        @Override
+        public List<Object> drainPending() {
+            // Nothing is generated until the foreground thread first calls 'hasNext()'.
+            return Collections.emptyList();
+        }
+
+        @Override
+        public void restorePending(List<Object> items) {
+        }
+
+        @Override
+        public Iterator<?> iterator() {
+            return new Iterator<Object>() {
+                @Override
+                public boolean hasNext() {
+                    return takeNext();
+                }
+
+                @Override
+                public Object next() {
+                    return nextValue();
+                }
+            };
+        }
+
+        @Override
+        public void close() {
+            ThreadSafeGenerator.this.close();
+        }
+    }
+
 }
@@ -1,9 +1,13 @@
 package ca.taylorsoftware.javagenerator;
 
-import java.util.Deque;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 
 /**
@@ -24,31 +28,146 @@ public abstract class ThreadedGenerator<T> implements AutoCloseable, Iterable<T>
     private T nextForegroundValue;
 
     /** The Producer/Consumer queue. */
-    private final Deque<T> yieldReturnQueue = new LinkedList<T>();
+    private final ElementQueue<T> yieldReturnQueue;
 
     /** The background thread. */
     private final Thread thread;
 
+    /** The scope this generator belongs to, if any. */
+    private final GeneratorScope scope;
+
+    /** The number of queued elements counted by the scope's run-ahead allowance. */
+    private volatile int scopeBuffered = 0;
+
+    /** Has 'start()' been called. */
+    private boolean isStarted = false;
+
+    /** The number of elements still to be discarded by 'yieldReturn(...)', see 'skip(n)'. */
+    private long pendingSkip = 0;
+
+    /** The operators fused into 'yieldReturn(...)', if any. Once set, only the pipeline may take elements. */
+    private volatile GeneratorPipeline<T> pipeline;
+
+    /** Has the foreground thread started iterating. */
+    private volatile boolean isIterating = false;
+
+    /** The GeneratorSelector this generator is registered with, if any. */
+    private volatile GeneratorSelector<?> selector;
+
+    /** Records latencies once 'enableTracing()' has been called. */
+    private volatile LatencyTracer tracer;
+
+    /** When 'nextForegroundValue' was added to the queue, or -1 if not traced. */
+    private long nextEnqueuedNanos = -1;
+
     /** Used to determine if the background thread needs to quit. */
     private volatile boolean isThreadCancelled = false;
 
     /** Is foreground process cancelled. */
     private volatile boolean isClosed = false;
 
+    /** Counts, and may report, this generator if it is let go of without being closed. */
+    private final GeneratorLeakDetector.Tracker tracker = new GeneratorLeakDetector.Tracker(this);
+
 
     public ThreadedGenerator() {
         this(DEFAULT_MAX_QUEUE_SIZE);
     }
 
     public ThreadedGenerator(int maxQueueSize) {
+        this(null, maxQueueSize);
+    }
+
+    /**
+     * Join 'scope' and let it decide how far the background thread may run ahead.
+     */
+    public ThreadedGenerator(GeneratorScope scope) {
+        this(scope, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Join 'scope'. The background thread may run ahead by no more than 'maxQueueSize'
+     * and no more than this generator's share of the scope's run-ahead allowance.
+     * @param scope the scope to join, or null to not belong to a scope.
+     */
+    public ThreadedGenerator(GeneratorScope scope, int maxQueueSize) {
+        this(scope, maxQueueSize, false);
+    }
+
+    /**
+     * For descendants whose 'generator()' depends on their own fields, which are not yet assigned
+     * while this constructor runs: with 'isStartDeferred' the background thread is not started
+     * until the descendant's constructor calls 'start()'.
+     * @param scope the scope to join, or null to not belong to a scope.
+     */
+    protected ThreadedGenerator(GeneratorScope scope, int maxQueueSize, boolean isStartDeferred) {
+        this(scope, maxQueueSize, new HeapElementQueue<T>(), isStartDeferred);
+    }
+
+    /**
+     * Buffer the elements the background thread runs ahead by serialized, outside of the Java heap,
+     * rather than as objects. Intended for a large 'maxQueueSize', where holding that many objects
+     * would otherwise burden the garbage collector.
+     * Each element is serialized by 'yieldReturn(...)' and deserialized by 'hasNext()'.
+     */
+    public ThreadedGenerator(int maxQueueSize, Serializer<T> serializer) {
+        this(null, maxQueueSize, serializer, false);
+    }
+
+    /**
+     * @param scope the scope to join, or null to not belong to a scope.
+     * @param serializer buffer the elements serialized, outside of the Java heap, or null to buffer them as objects.
+     * @param isStartDeferred see ThreadedGenerator(GeneratorScope, int, boolean).
+     */
+    protected ThreadedGenerator(GeneratorScope scope, int maxQueueSize, Serializer<T> serializer, boolean isStartDeferred) {
+        this(scope, maxQueueSize,
+                serializer == null ? new HeapElementQueue<T>() : new OffHeapElementQueue<T>(serializer),
+                isStartDeferred);
+    }
+
+    /**
+     * Never make the background thread wait for the foreground thread: up to 'maxInMemory' elements
+     * are buffered on the heap, any more are serialized to temporary files in 'spillDirectory'
+     * and read back in order. For generators that hold scarce resources and must finish quickly
+     * however slowly they are iterated. The files are deleted as they are consumed and by 'close()'.
+     * @param spillDirectory where to create the temporary files, or null for the default temporary-file directory.
+     */
+    public ThreadedGenerator(int maxInMemory, Serializer<T> serializer, Path spillDirectory) {
+        this(null, Integer.MAX_VALUE, new SpillingElementQueue<T>(maxInMemory, serializer, spillDirectory), false);
+    }
+
+    private ThreadedGenerator(GeneratorScope scope, int maxQueueSize, ElementQueue<T> yieldReturnQueue, boolean isStartDeferred) {
         if (maxQueueSize < 1) {
             String msg = "ThreadedGenerator(maxQueueSize): maxQueueSize must be greater than or equal to 1!";
             throw new IllegalArgumentException(msg);
         }
 
         this.maxQueueSize = maxQueueSize;
-        thread = new Thread(this);
-        thread.start();
+        this.scope = scope;
+        this.yieldReturnQueue = yieldReturnQueue;
+        thread = GeneratorLeakDetector.newBackgroundThread(this);
+        if (!isStartDeferred) {
+            start();
+        }
+    }
+
+
+    /**
+     * Start the background thread. Only for use by descendants that deferred it in their constructor.
+     */
+    protected final void start() {
+        if (isStarted) {
+            String msg = "start(): the background thread has already been started!";
+            throw new IllegalStateException(msg);
+        }
+        isStarted = true;
+
+        if (scope == null) {
+            thread.start();
+        } else {
+            // The scope starts the background thread once its thread budget allows.
+            scope.join(this, thread, true);
+        }
     }
 
 
@@ -66,32 +185,101 @@ public abstract class ThreadedGenerator<T> implements AutoCloseable, Iterable<T>
             // Foreground thread is calling 'close()'.
             if (!isClosed) {
                 isClosed = true;
+                tracker.done();
 
-                if (!isThreadCancelled) {
-                    synchronized (yieldReturnQueue) {
-                        isThreadCancelled = true;
-                        yieldReturnQueue.notifyAll();
+                synchronized (yieldReturnQueue) {
+                    isThreadCancelled = true;
+                    // Nothing more will be taken from the queue, so release what it holds now.
+                    yieldReturnQueue.clear();
+                    if (tracer != null) {
+                        tracer.cleared(0);
                     }
+                    queueChanged();
                 }
+                signalSelector();
             }
         }
     }
 
 
+    /**
+     * @throws IllegalStateException if operators have been applied; iterate the GeneratorPipeline they returned instead.
+     */
     @Override
     public Iterator<T> iterator() {
+        checkNoPipeline();
         return this;
     }
 
 
+    /**
+     * Once operators have been applied the queue holds their output, which need not be a T.
+     */
+    private void checkNoPipeline() {
+        if (pipeline != null) {
+            String msg = "Operators have been applied, so iterate the GeneratorPipeline they returned instead of the generator!";
+            throw new IllegalStateException(msg);
+        }
+    }
+
+
+    /**
+     * Wake the threads waiting on the queue and bring the scope's count of this generator's
+     * buffered elements up to date. Called, while holding the lock, whenever the queue may have changed.
+     */
+    private void queueChanged() {
+        yieldReturnQueue.notifyAll();
+        if (scope != null) {
+            int delta = yieldReturnQueue.size() - scopeBuffered;
+            if (delta != 0) {
+                scopeBuffered += delta;
+                scope.adjustBuffered(delta);
+            }
+        }
+    }
+
+
+    /** The maximum number of elements currently allowed in yieldReturnQueue. */
+    private int queueLimit() {
+        if (scope == null) {
+            return maxQueueSize;
+        }
+        return Math.min(maxQueueSize, scope.runAheadShare());
+    }
+
+
+    /**
+     * @throws IllegalStateException if operators have been applied; iterate the GeneratorPipeline they returned instead.
+     */
     @Override
     public boolean hasNext() {
+        checkNoPipeline();
+        return takeNext();
+    }
+
+
+    /**
+     * @throws IllegalStateException if operators have been applied; iterate the GeneratorPipeline they returned instead.
+     */
+    @Override
+    public T next() {
+        checkNoPipeline();
+        return nextValue();
+    }
+
+
+    /**
+     * The body of 'hasNext()', shared with the GeneratorPipeline.
+     */
+    private boolean takeNext() {
+        isIterating = true;
         if (isClosed) {
             return false;
         }
 
         boolean result = false;
         nextForegroundValue = null;
+        nextEnqueuedNanos = -1;
 
         synchronized (yieldReturnQueue) {
             // If necessary, wait for an item to be added to the queue.
@@ -115,29 +303,260 @@ public abstract class ThreadedGenerator<T> implements AutoCloseable, Iterable<T>
                 // Capture the next value here because we have already gone through
                 // the effort of synchronizing and verifying...
                 nextForegroundValue = yieldReturnQueue.removeFirst();
-                yieldReturnQueue.notifyAll();
+                nextEnqueuedNanos = tracer == null ? -1 : tracer.dequeued();
+                queueChanged();
             }
         }//synchronized
 
+        if (!result && !isClosed) {
+            finished();
+        }
         return result;
     }
 
 
-    @Override
-    public T next() {
+    /**
+     * Called on the foreground thread by 'hasNext()', and by a GeneratorPipeline built on this generator,
+     * once the background thread has finished and every element has been taken.
+     * Override it to hand a failure of the background thread over to the foreground thread by throwing it.
+     */
+    protected void finished() {
+    }
+
+
+    /**
+     * The body of 'next()', shared with the GeneratorPipeline.
+     */
+    private T nextValue() {
         if (isClosed) {
             throw new NoSuchElementException();
         }
+        if (nextEnqueuedNanos >= 0) {
+            tracer.yieldToNext.record(System.nanoTime() - nextEnqueuedNanos);
+            nextEnqueuedNanos = -1;
+        }
         return nextForegroundValue;
     }
 
 
+    /**
+     * Like 'hasNext()', but without waiting for an element to be added to the queue.
+     */
+    boolean tryNext() {
+        checkNoPipeline();
+        isIterating = true;
+        if (isClosed) {
+            return false;
+        }
+
+        synchronized (yieldReturnQueue) {
+            nextForegroundValue = null;
+            nextEnqueuedNanos = -1;
+            if (yieldReturnQueue.isEmpty()) {
+                return false;
+            }
+            nextForegroundValue = yieldReturnQueue.removeFirst();
+            nextEnqueuedNanos = tracer == null ? -1 : tracer.dequeued();
+            queueChanged();
+            return true;
+        }
+    }
+
+
+    /**
+     * @return true once there are no more elements to be had, that is closed, or finished and drained.
+     */
+    boolean isFinished() {
+        if (isClosed) {
+            return true;
+        }
+        synchronized (yieldReturnQueue) {
+            return isThreadCancelled && yieldReturnQueue.isEmpty();
+        }
+    }
+
+
+    void setSelector(GeneratorSelector<?> selector) {
+        synchronized (yieldReturnQueue) {
+            if (selector != null) {
+                checkNoPipeline();
+            }
+            if (selector != null && this.selector != null && this.selector != selector) {
+                String msg = "register(generator): the generator is already registered with another GeneratorSelector!";
+                throw new IllegalStateException(msg);
+            }
+            this.selector = selector;
+        }
+    }
+
+
+    /**
+     * Called, without holding the lock, whenever an element has been queued or this generator has finished.
+     */
+    private void signalSelector() {
+        GeneratorSelector<?> current = selector;
+        if (current != null) {
+            current.signal();
+        }
+    }
+
+
+    /**
+     * Apply 'mapper' to each element on the background thread. See GeneratorPipeline.
+     * @throws IllegalStateException if iteration has started, an operator has already been applied to this generator,
+     *  or the elements are buffered serialized.
+     */
+    public <R> GeneratorPipeline<R> map(Function<? super T, ? extends R> mapper) {
+        return pipeline().map(mapper);
+    }
+
+
+    /**
+     * Drop the elements not matching 'predicate' on the background thread. See GeneratorPipeline.
+     */
+    public GeneratorPipeline<T> filter(Predicate<? super T> predicate) {
+        return pipeline().filter(predicate);
+    }
+
+
+    /**
+     * Replace each element with those returned by 'mapper', on the background thread. See GeneratorPipeline.
+     */
+    public <R> GeneratorPipeline<R> flatMap(Function<? super T, ? extends Iterable<? extends R>> mapper) {
+        return pipeline().flatMap(mapper);
+    }
+
+
+    /**
+     * End the generator at the first element not matching 'predicate'. See GeneratorPipeline.
+     */
+    public GeneratorPipeline<T> takeWhile(Predicate<? super T> predicate) {
+        return pipeline().takeWhile(predicate);
+    }
+
+
+    /**
+     * End the generator once 'maxSize' elements have been generated. See GeneratorPipeline.
+     */
+    public GeneratorPipeline<T> limit(long maxSize) {
+        return pipeline().limit(maxSize);
+    }
+
+
+    private GeneratorPipeline<T> pipeline() {
+        synchronized (yieldReturnQueue) {
+            if (!(yieldReturnQueue instanceof HeapElementQueue)) {
+                // The Serializer is for the generator's own elements, not what the operators turn them into.
+                String msg = "Operators cannot be used when the queue is buffered with a Serializer!";
+                throw new IllegalStateException(msg);
+            }
+            if (pipeline != null) {
+                // Like a Stream, the generator is used up by the first operator.
+                String msg = "An operator has already been applied to this generator; apply further ones to the GeneratorPipeline it returned!";
+                throw new IllegalStateException(msg);
+            }
+            PipelineHost host = new PipelineHost();
+            // Checked here as well, so that a refused operator leaves the generator iterable.
+            host.checkNotIterating();
+            pipeline = new GeneratorPipeline<T>(host);
+            return pipeline;
+        }
+    }
+
+
+    /**
+     * Start timing each element from 'yieldReturn(...)' to the matching 'next()',
+     * and the time between successive elements being queued. Elements already queued are not timed.
+     * See 'getYieldToNextLatency()', 'getInterArrivalTime()' and 'dumpTrace(out)'.
+     */
+    public void enableTracing() {
+        synchronized (yieldReturnQueue) {
+            if (tracer == null) {
+                tracer = new LatencyTracer(yieldReturnQueue.size());
+            }
+        }
+    }
+
+
+    /**
+     * @return how stale elements were when 'next()' returned them, or null if tracing is not enabled.
+     */
+    public LatencyHistogram getYieldToNextLatency() {
+        LatencyTracer current = tracer;
+        return current == null ? null : current.yieldToNext;
+    }
+
+
+    /**
+     * @return the time between successive elements being queued, or null if tracing is not enabled.
+     */
+    public LatencyHistogram getInterArrivalTime() {
+        LatencyTracer current = tracer;
+        return current == null ? null : current.interArrival;
+    }
+
+
+    /**
+     * @return the number of elements not timed because too many were already queued, or 0 if tracing is not enabled.
+     * At most LatencyTracer.DEFAULT_MAX_TIMESTAMPS queued elements are timed at once.
+     */
+    public long getDroppedTimestamps() {
+        synchronized (yieldReturnQueue) {
+            return tracer == null ? 0 : tracer.droppedTimestamps();
+        }
+    }
+
+
+    public void dumpTrace(PrintStream out) {
+        LatencyTracer current = tracer;
+        if (current == null) {
+            out.format("%s: tracing is not enabled\n", getClass().getName());
+        } else {
+            out.format("%s: yield-to-next %s\n", getClass().getName(), current.yieldToNext);
+            out.format("%s: inter-arrival %s\n", getClass().getName(), current.interArrival);
+            out.format("%s: untimed elements %d\n", getClass().getName(), getDroppedTimestamps());
+        }
+    }
+
+
+    /**
+     * Discard the next 'n' elements. Those already queued are dropped here;
+     * the rest are dropped by 'yieldReturn(...)' without ever being queued.
+     * An element already announced by 'hasNext()' is not among them.
+     * <br>
+     * The generator may fast-forward its own computation by checking 'pendingSkip()'.
+     */
+    public void skip(long n) {
+        if (n < 0) {
+            String msg = "skip(n): n must not be negative!";
+            throw new IllegalArgumentException(msg);
+        }
+
+        synchronized (yieldReturnQueue) {
+            while (n > 0 && !yieldReturnQueue.isEmpty()) {
+                yieldReturnQueue.discardFirst();
+                if (tracer != null) {
+                    tracer.dequeued();
+                }
+                --n;
+            }
+            pendingSkip += n;
+            // Space may have become available in the queue.
+            queueChanged();
+        }
+    }
+
+
     @Override
     public void run() {
+        tracker.workerStarted();
         try {
             //TODO: consider providing a mechanism to pass any exception caught here
             //      up to the hasNext() method on the foreground thread.
-            generator();
+            if (!isThreadCancelled) {
+                // Skip the generator if closed while waiting for the scope to start this thread.
+                generator();
+            }
         } catch (InterruptedException ex) {
             // Ignore the InterruptedException and keep looping.
         } finally {
@@ -145,6 +564,11 @@ public abstract class ThreadedGenerator<T> implements AutoCloseable, Iterable<T>
                 isThreadCancelled = true;
                 yieldReturnQueue.notifyAll();
             }
+            signalSelector();
+            if (scope != null) {
+                scope.leave(this, true);
+            }
+            tracker.workerFinished();
         }
     }
 
@@ -154,6 +578,29 @@ public abstract class ThreadedGenerator<T> implements AutoCloseable, Iterable<T>
     }
 
 
+    /**
+     * @return the number of upcoming elements the foreground thread has asked to skip.
+     * A generator that can cheaply fast-forward may do so and report it with 'skipped(count)';
+     * otherwise 'yieldReturn(...)' simply discards them.
+     */
+    protected long pendingSkip() {
+        synchronized (yieldReturnQueue) {
+            // With operators the count is of their output, which the generator cannot fast-forward by.
+            return pipeline == null ? pendingSkip : 0;
+        }
+    }
+
+
+    /**
+     * Report that the generator fast-forwarded past 'count' elements without yielding them.
+     */
+    protected void skipped(long count) {
+        synchronized (yieldReturnQueue) {
+            pendingSkip -= Math.min(Math.max(count, 0), pendingSkip);
+        }
+    }
+
+
     /**
      * The descendant implementation of this method is where all the work happens.
      * <br>
@@ -176,8 +623,14 @@ public abstract class ThreadedGenerator<T> implements AutoCloseable, Iterable<T>
         }
 
         synchronized (yieldReturnQueue) {
+            if (pipeline == null && pendingSkip > 0) {
+                // Skipped, so there is no need to wait for space in the queue.
+                --pendingSkip;
+                return;
+            }
+
             // If necessary, wait until space becomes available in the queue.
-            while (yieldReturnQueue.size() >= maxQueueSize) {
+            while (yieldReturnQueue.isFull(queueLimit())) {
                 if (isThreadCancelled) {
                     break;
                 }
@@ -187,12 +640,124 @@ public abstract class ThreadedGenerator<T> implements AutoCloseable, Iterable<T>
                     // Ignore the InterruptedException and keep looping.
                 }
             }
+        }//synchronized
+
+        // Also wait for room in the scope's run-ahead allowance. Not holding the lock,
+        // so the foreground thread can still take this generator's elements meanwhile.
+        if (scope != null && !scope.reserve(() -> scopeBuffered, () -> isThreadCancelled)) {
+            throw new InterruptedException();
+        }
+
+        synchronized (yieldReturnQueue) {
+            if (scope != null) {
+                // Hand the reserved element over to 'queueChanged()', which releases it again if nothing was queued.
+                ++scopeBuffered;
+            }
+            try {
+                if (isThreadCancelled) {
+                    throw new InterruptedException();
+                }
+                if (pipeline == null) {
+                    offer(item);
+                } else if (!pipeline.push(item)) {
+                    // 'limit(n)' or 'takeWhile(...)' has let through all it ever will.
+                    throw new InterruptedException();
+                }
+            } finally {
+                queueChanged();
+            }
+        }//synchronized
+        signalSelector();
+    }
+
+
+    /**
+     * Add 'item' to the queue, unless it is to be skipped. Called while holding the lock.
+     * A flatMap operator may add several elements at once, taking the queue past its limit.
+     */
+    private void offer(T item) {
+        if (pendingSkip > 0) {
+            --pendingSkip;
+            return;
+        }
+        yieldReturnQueue.addLast(item);
+        if (tracer != null) {
+            tracer.enqueued(System.nanoTime());
+        }
+        yieldReturnQueue.notifyAll();
+    }
+
+
+    /**
+     * Lets a GeneratorPipeline fuse its operators into 'yieldReturn(...)'.
+     */
+    private final class PipelineHost implements GeneratorPipeline.Host {
+        private final GeneratorPipeline.Stage sink = new GeneratorPipeline.Stage() {
+            @Override
+            @SuppressWarnings("unchecked")
+            boolean push(Object item) {
+                offer((T) item);
+                return true;
+            }
+        };
+
+        @Override
+        public Object lock() {
+            return yieldReturnQueue;
+        }
 
-            if (isThreadCancelled) {
-                throw new InterruptedException();
+        @Override
+        public void checkNotIterating() {
+            if (isIterating) {
+                String msg = "Operators must be applied before iteration starts!";
+                throw new IllegalStateException(msg);
             }
-            yieldReturnQueue.addLast(item);
-            yieldReturnQueue.notifyAll();
+        }
+
+        @Override
+        public GeneratorPipeline.Stage sink() {
+            return sink;
+        }
+
+        @Override
+        public List<Object> drainPending() {
+            List<Object> items = new ArrayList<>();
+            while (!yieldReturnQueue.isEmpty()) {
+                items.add(yieldReturnQueue.removeFirst());
+            }
+            return items;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void restorePending(List<Object> items) {
+            for (Object item : items) {
+                yieldReturnQueue.addLast((T) item);
+            }
+            if (tracer != null) {
+                tracer.cleared(items.size());
+            }
+            queueChanged();
+        }
+
+        @Override
+        public Iterator<?> iterator() {
+            return new Iterator<Object>() {
+                @Override
+                public boolean hasNext() {
+                    return takeNext();
+                }
+
+                @Override
+                public Object next() {
+                    return nextValue();
+                }
+            };
+        }
+
+        @Override
+        public void close() {
+            ThreadedGenerator.this.close();
         }
     }
 
@@ -0,0 +1,58 @@
+package ca.taylorsoftware.javagenerator.examples;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import ca.taylorsoftware.javagenerator.AsynchronousFileGenerator;
+
+
+/**
+ * Computes the CRC32 of every file in a directory, reading each with an AsynchronousFileGenerator.
+ * Their reads complete on one shared pool of 4 threads, rather than on a background thread per file.
+ *
+ * To run this example:
+ * mvn clean install exec:java -Dexec.mainClass="ca.taylorsoftware.javagenerator.examples.AsynchronousFileExample" -Dexec.args="/usr/bin"
+ *
+ * @author Warren Taylor
+ * Created: 2026-10-19
+ * Copyright (c) 2026 Warren Taylor.  All right reserved.
+ */
+public class AsynchronousFileExample {
+
+    /**
+     * @param args [directory]
+     */
+    public static void main(String[] args) throws IOException {
+        Path directory = Paths.get(args.length > 0 ? args[0] : ".");
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            for (Path file : files) {
+                CRC32 crc = new CRC32();
+                // Reads ahead by up to 4 chunks of 64KB while the foreground thread is computing the CRC.
+                try (AsynchronousFileGenerator generator = new AsynchronousFileGenerator(file, 64 * 1024, 4, pool)) {
+                    for (ByteBuffer chunk : generator) {
+                        crc.update(chunk);
+                    }
+                }
+                System.out.format("%08x  %s\n", crc.getValue(), file);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+}
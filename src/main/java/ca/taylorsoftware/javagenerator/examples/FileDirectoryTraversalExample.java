@@ -32,10 +32,20 @@ public class FileDirectoryTraversalExample extends ThreadedGenerator<File> {
     }
 
 
+    private final File root;
+
+
     FileDirectoryTraversalExample() {
+        this(new File("."));
+    }
+
+    FileDirectoryTraversalExample(File root) {
         // Allow the background thread to re-ahead by 32 files and/or directories.
         // ...because we can.
-        super(32);
+        // Start the background thread only once 'root' has been assigned.
+        super(null, 32, true);
+        this.root = root;
+        start();
     }
 
 
@@ -48,7 +58,7 @@ public class FileDirectoryTraversalExample extends ThreadedGenerator<File> {
         // The following is for example purposes only and would likely be better
         // implemented with either Files.walk(...) or Files.walkFileTree(...).
         // Or even one of several other open source libraries.
-        File root = new File(".");
+        // See FileTreeGenerator for a production quality implementation.
         recurseDirectory(root);
     }
 
@@ -0,0 +1,132 @@
+package ca.taylorsoftware.javagenerator.examples;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import ca.taylorsoftware.javagenerator.FileTreeGenerator;
+import ca.taylorsoftware.javagenerator.RecursiveGenerator.Ordering;
+
+
+/**
+ * Compares FileDirectoryTraversalExample with FileTreeGenerator on the same directory tree.
+ *
+ * To run this example on a generated tree of 1,000,000 files:
+ * mvn clean install exec:java -Dexec.mainClass="ca.taylorsoftware.javagenerator.examples.FileTreeBenchmarkExample"
+ *
+ * Or on an existing directory:
+ * mvn clean install exec:java -Dexec.mainClass="ca.taylorsoftware.javagenerator.examples.FileTreeBenchmarkExample" -Dexec.args="/usr"
+ *
+ * @author Warren Taylor
+ * Created: 2026-10-19
+ * Copyright (c) 2026 Warren Taylor.  All right reserved.
+ */
+public class FileTreeBenchmarkExample {
+
+    /** Files per directory, and directories per level, of the generated tree. */
+    private static final int FAN_OUT = 100;
+
+    private static final int DEFAULT_FILE_COUNT = 1000000;
+
+
+    /**
+     * @param args [directory] or [-files count]
+     */
+    public static void main(String[] args) throws IOException {
+        Path root;
+        boolean isGenerated = args.length == 0 || args[0].equals("-files");
+
+        if (isGenerated) {
+            int fileCount = args.length == 2 ? Integer.parseInt(args[1]) : DEFAULT_FILE_COUNT;
+            root = Files.createTempDirectory("FileTreeBenchmark");
+            System.out.format("Creating %d files under %s\n", fileCount, root);
+            createTree(root, fileCount);
+        } else {
+            root = Paths.get(args[0]);
+        }
+
+        try {
+            // Run each twice so that the second run of each sees a warm file system cache.
+            for (int run = 0; run < 2; ++run) {
+                timeExample(root);
+                timeFileTreeGenerator(root, Ordering.UNORDERED);
+                timeFileTreeGenerator(root, Ordering.DEPTH_FIRST);
+            }
+        } finally {
+            if (isGenerated) {
+                deleteTree(root);
+            }
+        }
+    }
+
+
+    private static void timeExample(Path root) {
+        long startTime = System.nanoTime();
+        long count = 0;
+        try (FileDirectoryTraversalExample generator = new FileDirectoryTraversalExample(root.toFile())) {
+            for (File file : generator) {
+                if (file != null) {
+                    ++count;
+                }
+            }
+        }
+        report("FileDirectoryTraversalExample", count, startTime);
+    }
+
+
+    private static void timeFileTreeGenerator(Path root, Ordering ordering) {
+        long startTime = System.nanoTime();
+        long count = 0;
+        try (FileTreeGenerator generator = new FileTreeGenerator(root, (path, attributes) -> true,
+                4096, ordering, ForkJoinPool.commonPool())) {
+            for (FileTreeGenerator.Entry entry : generator) {
+                if (entry != null) {
+                    ++count;
+                }
+            }
+        }
+        report("FileTreeGenerator " + ordering, count, startTime);
+    }
+
+
+    private static void report(String name, long count, long startTime) {
+        long millis = (System.nanoTime() - startTime) / 1000000;
+        System.out.format("%-36s %10d entries %8d ms\n", name, count, millis);
+    }
+
+
+    private static void createTree(Path root, int fileCount) throws IOException {
+        int created = 0;
+        for (int top = 0; created < fileCount; ++top) {
+            for (int middle = 0; middle < FAN_OUT && created < fileCount; ++middle) {
+                Path dir = Files.createDirectories(root.resolve("d" + top).resolve("d" + middle));
+                for (int file = 0; file < FAN_OUT && created < fileCount; ++file, ++created) {
+                    Files.createFile(dir.resolve("f" + file));
+                }
+            }
+        }
+    }
+
+
+    private static void deleteTree(Path root) throws IOException {
+        // Collect first, in depth first order, so that directories can be deleted after their contents.
+        List<Path> paths = new ArrayList<>();
+        try (FileTreeGenerator generator = new FileTreeGenerator(root, (path, attributes) -> true,
+                4096, Ordering.DEPTH_FIRST, ForkJoinPool.commonPool())) {
+            for (FileTreeGenerator.Entry entry : generator) {
+                paths.add(entry.getPath());
+            }
+        }
+        Collections.reverse(paths);
+        for (Path path : paths) {
+            Files.delete(path);
+        }
+    }
+
+}
@@ -0,0 +1,85 @@
+package ca.taylorsoftware.javagenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+
+/**
+ * @author Warren Taylor
+ * Created: 2026-10-19
+ * Copyright (c) 2026 Warren Taylor.  All right reserved.
+ */
+class AsynchronousFileGeneratorTest {
+
+    @TempDir
+    Path dir;
+
+
+    private static byte[] collect(AsynchronousFileGenerator generator) {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        try (AsynchronousFileGenerator iter = generator) {
+            for (ByteBuffer chunk : iter) {
+                assertTrue(chunk.isReadOnly());
+                byte[] bytes = new byte[chunk.remaining()];
+                chunk.get(bytes);
+                result.write(bytes, 0, bytes.length);
+            }
+        }
+        return result.toByteArray();
+    }
+
+
+    @Test
+    void testReadsWholeFile() throws IOException {
+        byte[] content = new byte[1_000_000];
+        new Random(42).nextBytes(content);
+        Path file = Files.write(dir.resolve("random.bin"), content);
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            assertArrayEquals(content, collect(new AsynchronousFileGenerator(file, 4096, 2, pool)));
+            assertArrayEquals(content, collect(new AsynchronousFileGenerator(file)));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+
+    @Test
+    void testEmptyFile() throws IOException {
+        Path file = Files.write(dir.resolve("empty.bin"), new byte[0]);
+        assertEquals(0, collect(new AsynchronousFileGenerator(file)).length);
+    }
+
+
+    @Test
+    void testCloseEarly() throws IOException {
+        Path file = Files.write(dir.resolve("big.bin"), new byte[1_000_000]);
+        AsynchronousFileGenerator generator = new AsynchronousFileGenerator(file, 1024, 2, null);
+        assertTrue(generator.hasNext());
+        assertEquals(1024, generator.next().remaining());
+        generator.close();
+        assertFalse(generator.hasNext());
+        assertFalse(generator.canKeepGoing());
+    }
+
+
+    @Test
+    void testInvalidArguments() throws IOException {
+        Path file = Files.write(dir.resolve("small.bin"), new byte[1]);
+        assertThrows(IllegalArgumentException.class, () -> new AsynchronousFileGenerator(file, 0, 2, null));
+        assertThrows(IllegalArgumentException.class, () -> new AsynchronousFileGenerator(file, 1024, 0, null));
+    }
+
+}
@@ -0,0 +1,221 @@
+package ca.taylorsoftware.javagenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+
+/**
+ * @author Warren Taylor
+ * Created: 2026-10-19
+ * Copyright (c) 2026 Warren Taylor.  All right reserved.
+ */
+class CachedGeneratorTest {
+
+    @TempDir
+    Path dir;
+
+    private static final Serializer<Integer> INTEGERS = new Serializer<Integer>() {
+        @Override
+        public void serialize(Integer item, DataOutput out) throws IOException {
+            out.writeInt(item);
+        }
+
+        @Override
+        public Integer deserialize(DataInput in) throws IOException {
+            return in.readInt();
+        }
+    };
+
+
+    //-------------------------------------------------------------------------
+    private static class CountingGenerator extends ThreadedGenerator<Integer> {
+        private final int count;
+
+        CountingGenerator(int count) {
+            super(null, 16, true);
+            this.count = count;
+            start();
+        }
+
+        @Override
+        protected void generator() throws InterruptedException {
+            for (int value = 0; value < count; ++value) {
+                yieldReturn(value);
+            }
+        }
+    }
+
+
+    private static List<Integer> expected(int count) {
+        List<Integer> result = new ArrayList<>();
+        for (int value = 0; value < count; ++value) {
+            result.add(value);
+        }
+        return result;
+    }
+
+
+    private static List<Integer> collect(Iterable<Integer> iterable) {
+        List<Integer> result = new ArrayList<>();
+        for (int item : iterable) {
+            result.add(item);
+        }
+        return result;
+    }
+
+
+    @Test
+    void testSecondPassServedFromCache() {
+        AtomicInteger created = new AtomicInteger();
+        try (CachedGenerator<Integer> cached = new CachedGenerator<>(() -> {
+            created.incrementAndGet();
+            return new CountingGenerator(1000);
+        }, 1000)) {
+            assertEquals(expected(1000), collect(cached));
+            assertTrue(cached.isComplete());
+            assertEquals(expected(1000), collect(cached));
+            assertEquals(expected(1000), collect(cached));
+            assertEquals(1, created.get());
+        }
+    }
+
+
+    @Test
+    void testInterleavedIterators() {
+        try (CachedGenerator<Integer> cached = new CachedGenerator<>(() -> new CountingGenerator(100), 100)) {
+            Iterator<Integer> first = cached.iterator();
+            Iterator<Integer> second = cached.iterator();
+
+            for (int value = 0; value < 50; ++value) {
+                assertEquals(value, first.next());
+            }
+            assertEquals(50, cached.recordedCount());
+            for (int value = 0; value < 100; ++value) {
+                assertEquals(value, second.next());
+            }
+            for (int value = 50; value < 100; ++value) {
+                assertEquals(value, first.next());
+            }
+            assertFalse(first.hasNext());
+            assertFalse(second.hasNext());
+        }
+    }
+
+
+    @Test
+    void testConcurrentIterators() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (CachedGenerator<Integer> cached = new CachedGenerator<>(() -> new CountingGenerator(100000), 100000)) {
+            List<Future<List<Integer>>> results = new ArrayList<>();
+            for (int count = 0; count < 8; ++count) {
+                results.add(executor.submit(() -> collect(cached)));
+            }
+            for (Future<List<Integer>> result : results) {
+                assertEquals(expected(100000), result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+
+    @Test
+    void testRecomputePastTheBound() {
+        AtomicInteger created = new AtomicInteger();
+        try (CachedGenerator<Integer> cached = new CachedGenerator<>(() -> {
+            created.incrementAndGet();
+            return new CountingGenerator(1000);
+        }, 100)) {
+            assertEquals(expected(1000), collect(cached));
+            assertEquals(100, cached.recordedCount());
+            assertEquals(1, created.get());
+
+            // Later passes read the first 100 from the cache and recompute the rest.
+            assertEquals(expected(1000), collect(cached));
+            assertEquals(2, created.get());
+        }
+    }
+
+
+    @Test
+    void testSpillPastTheBound() throws IOException {
+        AtomicInteger created = new AtomicInteger();
+        try (CachedGenerator<Integer> cached = new CachedGenerator<>(() -> {
+            created.incrementAndGet();
+            return new CountingGenerator(10000);
+        }, 100, INTEGERS, dir)) {
+            Iterator<Integer> first = cached.iterator();
+            for (int value = 0; value < 5000; ++value) {
+                assertEquals(value, first.next());
+            }
+
+            assertEquals(expected(10000), collect(cached));
+            assertEquals(expected(10000), collect(cached));
+            for (int value = 5000; value < 10000; ++value) {
+                assertEquals(value, first.next());
+            }
+            assertFalse(first.hasNext());
+            assertEquals(10000, cached.recordedCount());
+            assertEquals(1, created.get());
+            assertEquals(1, spillFiles());
+        }
+        assertEquals(0, spillFiles());
+    }
+
+
+    @Test
+    void testClose() {
+        CachedGenerator<Integer> cached = new CachedGenerator<>(() -> new CountingGenerator(1000), 1000);
+        Iterator<Integer> iter = cached.iterator();
+        assertEquals(0, iter.next());
+
+        cached.close();
+        assertFalse(iter.hasNext());
+        assertFalse(cached.iterator().hasNext());
+    }
+
+
+    @Test
+    void testCloseEndsRecomputingIterators() throws InterruptedException {
+        int liveBefore = GeneratorLeakDetector.liveGenerators();
+        CachedGenerator<Integer> cached = new CachedGenerator<>(() -> new CountingGenerator(1000), 2);
+        for (int pass = 0; pass < 5; ++pass) {
+            for (int item : cached) {
+                if (item == 10) {
+                    break;
+                }
+            }
+        }
+
+        cached.close();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (GeneratorLeakDetector.liveGenerators() > liveBefore && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(liveBefore, GeneratorLeakDetector.liveGenerators());
+    }
+
+
+    private long spillFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.count();
+        }
+    }
+
+}
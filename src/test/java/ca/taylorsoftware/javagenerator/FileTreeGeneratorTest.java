@@ -0,0 +1,155 @@
+package ca.taylorsoftware.javagenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import ca.taylorsoftware.javagenerator.RecursiveGenerator.Ordering;
+
+
+/**
+ * @author Warren Taylor
+ * Created: 2026-10-19
+ * Copyright (c) 2026 Warren Taylor.  All right reserved.
+ */
+class FileTreeGeneratorTest {
+
+    @TempDir
+    Path root;
+
+    @BeforeEach
+    void createTree() throws IOException {
+        for (int top = 0; top < 4; ++top) {
+            for (int middle = 0; middle < 3; ++middle) {
+                Path dir = Files.createDirectories(root.resolve("d" + top).resolve("d" + middle));
+                for (int file = 0; file < 5; ++file) {
+                    Files.createFile(dir.resolve("f" + file + ".txt"));
+                }
+                Files.createFile(dir.resolve("other.java"));
+            }
+        }
+    }
+
+
+    private static List<Path> collect(FileTreeGenerator generator) {
+        List<Path> result = new ArrayList<>();
+        try (FileTreeGenerator iter = generator) {
+            for (FileTreeGenerator.Entry entry : iter) {
+                assertNotNull(entry.getAttributes());
+                result.add(entry.getPath());
+            }
+        }
+        return result;
+    }
+
+
+    private List<Path> walk() throws IOException {
+        try (Stream<Path> stream = Files.walk(root)) {
+            return stream.collect(Collectors.toList());
+        }
+    }
+
+
+    @Test
+    void testUnorderedFindsEverything() throws IOException {
+        List<Path> actual = collect(new FileTreeGenerator(root));
+        assertEquals(new HashSet<>(walk()), new HashSet<>(actual));
+        assertEquals(walk().size(), actual.size());
+    }
+
+
+    @Test
+    void testDepthFirstMatchesFilesWalk() throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            List<Path> actual = collect(new FileTreeGenerator(root, (path, attributes) -> true, 2, Ordering.DEPTH_FIRST, pool));
+            assertEquals(walk(), actual);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+
+    @Test
+    void testWideDirectory() throws IOException, InterruptedException {
+        // Far more sub-directories than the buffer holds entries, each read by its own step.
+        for (int dir = 0; dir < 1500; ++dir) {
+            Path wide = Files.createDirectories(root.resolve("wide").resolve("w" + dir));
+            for (int file = 0; file < 40; ++file) {
+                Files.createFile(wide.resolve("f" + file));
+            }
+        }
+        List<Path> expected = walk();
+
+        List<Path> actual = new ArrayList<>();
+        try (FileTreeGenerator iter = new FileTreeGenerator(root, (path, attributes) -> true,
+                64, Ordering.UNORDERED, ForkJoinPool.commonPool())) {
+            for (FileTreeGenerator.Entry entry : iter) {
+                actual.add(entry.getPath());
+                if (actual.size() % 1000 == 0) {
+                    // A slow consumer, so that the forked steps find the buffer full.
+                    Thread.sleep(1);
+                }
+            }
+        }
+        assertEquals(expected.size(), actual.size());
+        assertEquals(new HashSet<>(expected), new HashSet<>(actual));
+
+        assertEquals(expected, collect(new FileTreeGenerator(root, (path, attributes) -> true,
+                64, Ordering.DEPTH_FIRST, ForkJoinPool.commonPool())));
+    }
+
+
+    @Test
+    void testGlob() {
+        Set<Path> actual = new HashSet<>(collect(new FileTreeGenerator(root, "**/*.java")));
+        assertEquals(12, actual.size());
+        for (Path path : actual) {
+            assertTrue(path.toString().endsWith("other.java"));
+        }
+    }
+
+
+    @Test
+    void testPredicateAndPruning() {
+        FileTreeGenerator generator = new FileTreeGenerator(root, (path, attributes) -> attributes.isRegularFile()) {
+            @Override
+            protected boolean enterDirectory(Path dir, BasicFileAttributes attributes) {
+                return !dir.getFileName().toString().equals("d0");
+            }
+        };
+
+        // Pruning "d0" removes the whole first top level directory and the first middle directory of the others.
+        assertEquals(3 * 2 * 6, collect(generator).size());
+    }
+
+
+    @Test
+    void testMissingRoot() {
+        List<Path> failed = new ArrayList<>();
+        FileTreeGenerator generator = new FileTreeGenerator(root.resolve("missing")) {
+            @Override
+            protected void visitFailed(Path path, IOException ex) {
+                failed.add(path);
+            }
+        };
+
+        assertTrue(collect(generator).isEmpty());
+        assertEquals(1, failed.size());
+    }
+
+}
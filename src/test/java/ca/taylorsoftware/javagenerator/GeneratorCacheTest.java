@@ -0,0 +1,75 @@
+package ca.taylorsoftware.javagenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * @author Warren Taylor
+ * Created: 2026-10-19
+ * Copyright (c) 2026 Warren Taylor.  All right reserved.
+ */
+class GeneratorCacheTest {
+
+    private final AtomicInteger created = new AtomicInteger();
+
+    private List<String> words(String key) {
+        created.incrementAndGet();
+        return Arrays.asList(key, key + key, key + key + key);
+    }
+
+
+    @Test
+    void testSharedByKey() {
+        try (GeneratorCache<String, String> cache = new GeneratorCache<>(4, this::words, 100)) {
+            assertSame(cache.get("a"), cache.get("a"));
+            assertNotSame(cache.get("a"), cache.get("b"));
+
+            assertIterableEquals(Arrays.asList("a", "aa", "aaa"), cache.get("a"));
+            assertIterableEquals(Arrays.asList("a", "aa", "aaa"), cache.get("a"));
+            assertIterableEquals(Arrays.asList("b", "bb", "bbb"), cache.get("b"));
+            assertEquals(2, created.get());
+        }
+    }
+
+
+    @Test
+    void testLeastRecentlyUsedEviction() {
+        try (GeneratorCache<String, String> cache = new GeneratorCache<>(2, this::words, 100)) {
+            CachedGenerator<String> first = cache.get("a");
+            cache.get("b");
+            cache.get("a");
+            // "b" is the least recently used.
+            cache.get("c");
+            assertEquals(2, cache.size());
+            assertSame(first, cache.get("a"));
+
+            // The evicted entry is not closed while still in use.
+            CachedGenerator<String> evicted = cache.get("d");
+            cache.get("e");
+            cache.get("f");
+            assertIterableEquals(Arrays.asList("d", "dd", "ddd"), evicted);
+            assertNotSame(evicted, cache.get("d"));
+        }
+    }
+
+
+    @Test
+    void testInvalidateAndClose() {
+        GeneratorCache<String, String> cache = new GeneratorCache<>(4, this::words, 100);
+        CachedGenerator<String> first = cache.get("a");
+        cache.invalidate("a");
+        assertNotSame(first, cache.get("a"));
+
+        CachedGenerator<String> entry = cache.get("b");
+        cache.close();
+        assertFalse(entry.iterator().hasNext());
+        assertThrows(IllegalStateException.class, () -> cache.get("b"));
+    }
+
+}
@@ -0,0 +1,224 @@
+package ca.taylorsoftware.javagenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Iterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * @author Warren Taylor
+ * Created: 2026-10-19
+ * Copyright (c) 2026 Warren Taylor.  All right reserved.
+ */
+class GeneratorLeakDetectorTest {
+
+    //-------------------------------------------------------------------------
+    private static class EndlessThreadedGenerator extends ThreadedGenerator<Integer> {
+        private final CountDownLatch finished;
+
+        EndlessThreadedGenerator(CountDownLatch finished) {
+            this.finished = finished;
+        }
+
+        @Override
+        protected void generator() throws InterruptedException {
+            try {
+                int counter = 0;
+                while (true) {
+                    yieldReturn(++counter);
+                }
+            } finally {
+                finished.countDown();
+            }
+        }
+    }
+
+    private static class EndlessThreadSafeGenerator extends ThreadSafeGenerator<Integer> {
+        private final CountDownLatch finished;
+
+        EndlessThreadSafeGenerator(CountDownLatch finished) {
+            this.finished = finished;
+        }
+
+        @Override
+        protected void generator() throws InterruptedException {
+            try {
+                int counter = 0;
+                while (true) {
+                    yieldReturn(++counter);
+                }
+            } finally {
+                finished.countDown();
+            }
+        }
+    }
+
+
+    //-------------------------------------------------------------------------
+    private static class CountingThreadedGenerator extends ThreadedGenerator<Integer> {
+        volatile boolean isDaemon;
+
+        CountingThreadedGenerator() {
+            super(4);
+        }
+
+        @Override
+        protected void generator() throws InterruptedException {
+            isDaemon = Thread.currentThread().isDaemon();
+            for (int value = 1; value <= 10; ++value) {
+                yieldReturn(value);
+            }
+        }
+    }
+
+    private static class CountingThreadSafeGenerator extends ThreadSafeGenerator<Integer> {
+        @Override
+        protected void generator() throws InterruptedException {
+            for (int value = 1; value <= 10; ++value) {
+                yieldReturn(value);
+            }
+        }
+    }
+
+
+    /** Create a generator and let go of it without iterating or closing it. */
+    private static void forget() {
+        new EndlessThreadSafeGenerator(new CountDownLatch(1));
+    }
+
+
+    /** Break out of one for-each, collect garbage, then carry on with another. */
+    private static int breakThenKeepIterating(Iterable<Integer> generator) throws InterruptedException {
+        for (int value : generator) {
+            if (value == 2) {
+                break;
+            }
+        }
+
+        System.gc();
+        Thread.sleep(100);
+
+        int count = 0;
+        for (int value : generator) {
+            assertEquals(count + 3, value);
+            ++count;
+        }
+        return count;
+    }
+
+
+    @Test
+    void testBreakThenKeepIterating() throws InterruptedException {
+        try (CountingThreadedGenerator generator = new CountingThreadedGenerator()) {
+            assertEquals(8, breakThenKeepIterating(generator));
+        }
+        try (CountingThreadSafeGenerator generator = new CountingThreadSafeGenerator()) {
+            assertEquals(8, breakThenKeepIterating(generator));
+        }
+    }
+
+
+    @Test
+    void testForgottenGeneratorIsReported() throws InterruptedException {
+        long reclaimedBefore = GeneratorLeakDetector.reclaimedGenerators();
+        GeneratorLeakDetector.setLeakReporting(1);
+        try {
+            forget();
+        } finally {
+            GeneratorLeakDetector.setLeakReporting(0);
+        }
+
+        for (int attempt = 0; attempt < 100 && GeneratorLeakDetector.reclaimedGenerators() == reclaimedBefore; ++attempt) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        assertTrue(GeneratorLeakDetector.reclaimedGenerators() > reclaimedBefore);
+    }
+
+
+    @Test
+    void testBackgroundThreadIsDaemon() {
+        // A generator left running in 'yieldReturn(...)' must not keep the JVM from exiting.
+        try (CountingThreadedGenerator generator = new CountingThreadedGenerator()) {
+            assertTrue(generator.hasNext());
+            assertTrue(generator.isDaemon);
+        }
+    }
+
+
+    @Test
+    void testReachableGeneratorIsNotReclaimed() throws InterruptedException {
+        CountDownLatch finished = new CountDownLatch(1);
+        try (EndlessThreadedGenerator generator = new EndlessThreadedGenerator(finished)) {
+            Iterator<Integer> iter = generator.iterator();
+            assertTrue(iter.hasNext());
+            assertEquals(1, iter.next());
+
+            System.gc();
+            assertFalse(finished.await(200, TimeUnit.MILLISECONDS));
+
+            assertTrue(iter.hasNext());
+            assertEquals(2, iter.next());
+        }
+        assertTrue(finished.await(10, TimeUnit.SECONDS));
+    }
+
+
+    @Test
+    void testLiveGenerators() throws InterruptedException {
+        CountDownLatch finished = new CountDownLatch(1);
+        try (EndlessThreadedGenerator generator = new EndlessThreadedGenerator(finished)) {
+            assertTrue(generator.iterator().hasNext());
+            assertTrue(GeneratorLeakDetector.liveGenerators() >= 1);
+        }
+    }
+
+
+    private static String reportUnclosed() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (PrintStream out = new PrintStream(bytes)) {
+            GeneratorLeakDetector.reportUnclosed(out);
+        }
+        return bytes.toString();
+    }
+
+
+    @Test
+    void testRunningGeneratorIsReportedUnclosed() throws InterruptedException {
+        CountDownLatch finished = new CountDownLatch(1);
+        EndlessThreadedGenerator generator;
+        GeneratorLeakDetector.setLeakReporting(1);
+        try {
+            // Its thread starts in the constructor and stays parked in 'yieldReturn(...)', so it never becomes unreachable.
+            generator = new EndlessThreadedGenerator(finished);
+        } finally {
+            GeneratorLeakDetector.setLeakReporting(0);
+        }
+
+        // Its thread registers once it is running.
+        String report = reportUnclosed();
+        for (int attempt = 0; attempt < 100 && !report.contains("testRunningGeneratorIsReportedUnclosed"); ++attempt) {
+            Thread.sleep(10);
+            report = reportUnclosed();
+        }
+        assertTrue(report.contains(EndlessThreadedGenerator.class.getName() + " is running but has not been closed."));
+        assertTrue(report.contains("testRunningGeneratorIsReportedUnclosed"));
+
+        generator.close();
+        assertFalse(reportUnclosed().contains("testRunningGeneratorIsReportedUnclosed"));
+        assertTrue(finished.await(10, TimeUnit.SECONDS));
+    }
+
+
+    @Test
+    void testInvalidSamplingInterval() {
+        assertThrows(IllegalArgumentException.class, () -> GeneratorLeakDetector.setLeakReporting(-1));
+    }
+
+}
@@ -0,0 +1,280 @@
+package ca.taylorsoftware.javagenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+
+
+/**
+ * Opens thousands of concurrent generators with a mix of workloads and premature closes,
+ * and fails if throughput, peak thread count, memory, close latency or leaked threads regress.
+ * <br>
+ * Not part of the default build; run it with 'mvn -P load-test verify'.
+ * Every level and threshold can be overridden with a system property, e.g.
+ * 'mvn -P load-test verify -Dloadtest.levels=1000 -Dloadtest.minThroughput=10000'.
+ *
+ * @author Warren Taylor
+ * Created: 2026-10-19
+ * Copyright (c) 2026 Warren Taylor.  All right reserved.
+ */
+class GeneratorLoadIT {
+
+    /** The numbers of concurrent generators to open, one run each. */
+    private static final String LEVELS = System.getProperty("loadtest.levels", "1000,10000,100000");
+
+    /** The background threads allowed to run at once, shared through a GeneratorScope. */
+    private static final int MAX_THREADS = Integer.getInteger("loadtest.maxThreads", 256);
+
+    /** The foreground threads iterating the generators. */
+    private static final int CONSUMERS = Integer.getInteger("loadtest.consumers", 8);
+
+    /** The number of elements each finite generator produces. */
+    private static final int ELEMENTS = Integer.getInteger("loadtest.elements", 100);
+
+    // The thresholds.
+    private static final long MIN_THROUGHPUT = Long.getLong("loadtest.minThroughput", 50_000);
+    private static final long MAX_CLOSE_P99_MILLIS = Long.getLong("loadtest.maxCloseP99Millis", 100);
+    private static final int MAX_PEAK_THREADS = Integer.getInteger("loadtest.maxPeakThreads", MAX_THREADS + CONSUMERS + 64);
+    private static final long MAX_HEAP_MB = Long.getLong("loadtest.maxHeapMB", 2048);
+    private static final long MAX_DIRECT_MB = Long.getLong("loadtest.maxDirectMB", 256);
+    private static final int MAX_LEAKED_THREADS = Integer.getInteger("loadtest.maxLeakedThreads", 0);
+    private static final long LEAK_TIMEOUT_MILLIS = Long.getLong("loadtest.leakTimeoutMillis", 10_000);
+
+    private static final Serializer<Integer> INTEGERS = new Serializer<Integer>() {
+        @Override
+        public void serialize(Integer element, DataOutput output) throws IOException {
+            output.writeInt(element);
+        }
+
+        @Override
+        public Integer deserialize(DataInput input) throws IOException {
+            return input.readInt();
+        }
+    };
+
+
+    //-------------------------------------------------------------------------
+    /**
+     * The mix of workloads, chosen in turn as the generators are opened.
+     */
+    private enum Workload {
+        /** A run-ahead generator iterated to the end. */
+        RUN_AHEAD,
+        /** A lock-step ThreadSafeGenerator iterated to the end. */
+        LOCKSTEP,
+        /** A run-ahead generator buffering its elements off the heap, iterated to the end. */
+        OFF_HEAP,
+        /** An endless generator closed after a few elements. */
+        CLOSED_EARLY,
+        /** An endless generator closed without being iterated. */
+        NEVER_ITERATED
+    }
+
+
+    //-------------------------------------------------------------------------
+    private static class CountingGenerator extends ThreadedGenerator<Integer> {
+        private final int count;
+
+        CountingGenerator(GeneratorScope scope, int count, Serializer<Integer> serializer) {
+            super(scope, 16, serializer, true);
+            this.count = count;
+            start();
+        }
+
+        @Override
+        protected void generator() throws InterruptedException {
+            for (int value = 1; value <= count; ++value) {
+                yieldReturn(value);
+            }
+        }
+    }
+
+
+    //-------------------------------------------------------------------------
+    private static class CountingThreadSafeGenerator extends ThreadSafeGenerator<Integer> {
+        private final int count;
+
+        CountingThreadSafeGenerator(GeneratorScope scope, int count) {
+            super(scope);
+            this.count = count;
+        }
+
+        @Override
+        protected void generator() throws InterruptedException {
+            for (int value = 1; value <= count; ++value) {
+                yieldReturn(value);
+            }
+        }
+    }
+
+
+    @TestFactory
+    Stream<DynamicTest> testConcurrentGenerators() {
+        return Stream.of(LEVELS.split(","))
+                .map(String::trim)
+                .filter(level -> !level.isEmpty())
+                .map(Integer::valueOf)
+                .map(level -> DynamicTest.dynamicTest(level + " concurrent generators", () -> run(level)));
+    }
+
+
+    private void run(int generatorCount) throws InterruptedException {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .collect(Collectors.toList());
+        BufferPoolMXBean direct = ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .filter(pool -> pool.getName().equals("direct"))
+                .findFirst().orElse(null);
+
+        System.gc();
+        int liveBefore = GeneratorLeakDetector.liveGenerators();
+        long directBefore = direct == null ? 0 : direct.getMemoryUsed();
+        threads.resetPeakThreadCount();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+        LatencyHistogram closeLatency = new LatencyHistogram();
+        AtomicLong consumed = new AtomicLong();
+        AtomicLong peakDirect = new AtomicLong();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        long startNanos = System.nanoTime();
+        try (GeneratorScope scope = new GeneratorScope(MAX_THREADS, MAX_THREADS * 16)) {
+            // Open every generator up front, so all of them are open at the same time.
+            List<AutoCloseable> generators = new ArrayList<>(generatorCount);
+            Workload[] workloads = Workload.values();
+            for (int index = 0; index < generatorCount; ++index) {
+                switch (workloads[index % workloads.length]) {
+                case RUN_AHEAD:
+                    generators.add(new CountingGenerator(scope, ELEMENTS, null));
+                    break;
+                case LOCKSTEP:
+                    generators.add(new CountingThreadSafeGenerator(scope, ELEMENTS));
+                    break;
+                case OFF_HEAP:
+                    generators.add(new CountingGenerator(scope, ELEMENTS, INTEGERS));
+                    break;
+                case CLOSED_EARLY:
+                case NEVER_ITERATED:
+                    generators.add(new CountingGenerator(scope, Integer.MAX_VALUE, null));
+                    break;
+                }
+            }
+
+            // The consumers take the generators in creation order, which is the order the scope starts them in.
+            AtomicInteger nextIndex = new AtomicInteger();
+            List<Thread> consumers = new ArrayList<>();
+            for (int consumer = 0; consumer < CONSUMERS; ++consumer) {
+                Thread thread = new Thread(() -> {
+                    try {
+                        for (int index = nextIndex.getAndIncrement(); index < generatorCount; index = nextIndex.getAndIncrement()) {
+                            consume(generators.get(index), workloads[index % workloads.length], consumed, closeLatency);
+                            if (direct != null && index % 64 == 0) {
+                                peakDirect.accumulateAndGet(direct.getMemoryUsed() - directBefore, Math::max);
+                            }
+                        }
+                    } catch (Throwable ex) {
+                        failure.compareAndSet(null, ex);
+                        // Let the other consumers finish rather than wait on generators nobody will iterate.
+                        scope.close();
+                    }
+                }, "LoadTest-Consumer-" + consumer);
+                consumers.add(thread);
+                thread.start();
+            }
+            for (Thread thread : consumers) {
+                thread.join();
+            }
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+
+        if (failure.get() != null) {
+            fail("A consumer failed", failure.get());
+        }
+
+        int leakedThreads = waitForThreads(liveBefore);
+        long throughput = consumed.get() * TimeUnit.SECONDS.toNanos(1) / Math.max(elapsedNanos, 1);
+        int peakThreads = threads.getPeakThreadCount();
+        long peakHeapMB = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum() >> 20;
+        long peakDirectMB = peakDirect.get() >> 20;
+
+        System.out.printf("%d generators: %d elements in %.2fs, %d elements/s, peak threads %d, peak heap %dMB,"
+                + " peak direct %dMB, close latency %s, leaked threads %d%n",
+                generatorCount, consumed.get(), elapsedNanos / 1e9, throughput, peakThreads, peakHeapMB,
+                peakDirectMB, closeLatency, leakedThreads);
+
+        assertTrue(throughput >= MIN_THROUGHPUT, "throughput " + throughput + " elements/s is below " + MIN_THROUGHPUT);
+        assertTrue(peakThreads <= MAX_PEAK_THREADS, "peak thread count " + peakThreads + " is above " + MAX_PEAK_THREADS);
+        assertTrue(peakHeapMB <= MAX_HEAP_MB, "peak heap " + peakHeapMB + "MB is above " + MAX_HEAP_MB + "MB");
+        assertTrue(peakDirectMB <= MAX_DIRECT_MB, "peak direct memory " + peakDirectMB + "MB is above " + MAX_DIRECT_MB + "MB");
+        long closeP99Millis = TimeUnit.NANOSECONDS.toMillis(closeLatency.getPercentile(99));
+        assertTrue(closeP99Millis <= MAX_CLOSE_P99_MILLIS, "p99 close latency " + closeP99Millis + "ms is above " + MAX_CLOSE_P99_MILLIS + "ms");
+        assertTrue(leakedThreads <= MAX_LEAKED_THREADS, leakedThreads + " background threads are still running");
+    }
+
+
+    private static void consume(AutoCloseable generator, Workload workload, AtomicLong consumed, LatencyHistogram closeLatency)
+            throws Exception {
+        @SuppressWarnings("unchecked")
+        Iterator<Integer> iterator = (Iterator<Integer>) generator;
+        int expected = 0;
+
+        switch (workload) {
+        case RUN_AHEAD:
+        case LOCKSTEP:
+        case OFF_HEAP:
+            while (iterator.hasNext()) {
+                assertEquals(++expected, iterator.next());
+            }
+            assertEquals(ELEMENTS, expected);
+            break;
+        case CLOSED_EARLY:
+            while (expected < 10 && iterator.hasNext()) {
+                assertEquals(++expected, iterator.next());
+            }
+            break;
+        case NEVER_ITERATED:
+            break;
+        }
+        consumed.addAndGet(expected);
+
+        long closeStart = System.nanoTime();
+        generator.close();
+        closeLatency.record(System.nanoTime() - closeStart);
+    }
+
+
+    /**
+     * Wait for the background threads started during the run to finish.
+     * @return the number still running once 'loadtest.leakTimeoutMillis' has passed.
+     */
+    private static int waitForThreads(int liveBefore) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(LEAK_TIMEOUT_MILLIS);
+        int leaked = GeneratorLeakDetector.liveGenerators() - liveBefore;
+        while (leaked > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            leaked = GeneratorLeakDetector.liveGenerators() - liveBefore;
+        }
+        return leaked;
+    }
+
+}
@@ -0,0 +1,234 @@
+package ca.taylorsoftware.javagenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * @author Warren Taylor
+ * Created: 2026-10-19
+ * Copyright (c) 2026 Warren Taylor.  All right reserved.
+ */
+class GeneratorPipelineTest {
+
+    //-------------------------------------------------------------------------
+    private static class ThreadedCounter extends ThreadedGenerator<Integer> {
+        private final int count;
+        volatile int computed = 0;
+
+        ThreadedCounter(int maxQueueSize, int count) {
+            super(null, maxQueueSize, true);
+            this.count = count;
+            start();
+        }
+
+        @Override
+        protected void generator() throws InterruptedException {
+            for (int value = 1; value <= count; ++value) {
+                computed = value;
+                yieldReturn(value);
+            }
+        }
+    }
+
+
+    //-------------------------------------------------------------------------
+    private static class ThreadSafeCounter extends ThreadSafeGenerator<Integer> {
+        private final int count;
+        volatile int computed = 0;
+
+        ThreadSafeCounter(int count) {
+            this.count = count;
+        }
+
+        @Override
+        protected void generator() throws InterruptedException {
+            for (int value = 1; value <= count; ++value) {
+                computed = value;
+                yieldReturn(value);
+            }
+        }
+    }
+
+
+    private static <T> List<T> collect(GeneratorPipeline<T> pipeline) {
+        List<T> result = new ArrayList<>();
+        try (GeneratorPipeline<T> iter = pipeline) {
+            for (T item : iter) {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+
+
+    @Test
+    void testMapAndFilter() {
+        List<String> expected = Arrays.asList("#3", "#6", "#9");
+        assertEquals(expected, collect(new ThreadedCounter(1, 10).filter(value -> value % 3 == 0).map(value -> "#" + value)));
+        assertEquals(expected, collect(new ThreadSafeCounter(10).filter(value -> value % 3 == 0).map(value -> "#" + value)));
+    }
+
+
+    @Test
+    void testFlatMap() {
+        List<Integer> expected = Arrays.asList(2, 2, 3, 3, 3);
+        assertEquals(expected, collect(new ThreadedCounter(1, 3).flatMap(value -> nCopies(value))));
+        assertEquals(expected, collect(new ThreadSafeCounter(3).flatMap(value -> nCopies(value))));
+    }
+
+
+    private static List<Integer> nCopies(int value) {
+        List<Integer> result = new ArrayList<>();
+        for (int count = 0; value > 1 && count < value; ++count) {
+            result.add(value);
+        }
+        return result;
+    }
+
+
+    @Test
+    void testLimitStopsTheProducer() {
+        ThreadedCounter threaded = new ThreadedCounter(1, Integer.MAX_VALUE);
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5), collect(threaded.limit(5)));
+        assertEquals(5, threaded.computed);
+
+        ThreadSafeCounter threadSafe = new ThreadSafeCounter(Integer.MAX_VALUE);
+        assertEquals(Arrays.asList(2, 4, 6), collect(threadSafe.filter(value -> value % 2 == 0).limit(3)));
+        assertEquals(6, threadSafe.computed);
+
+        assertTrue(collect(new ThreadSafeCounter(10).limit(0)).isEmpty());
+    }
+
+
+    @Test
+    void testTakeWhile() {
+        List<Integer> expected = Arrays.asList(1, 2, 3);
+        ThreadedCounter threaded = new ThreadedCounter(1, Integer.MAX_VALUE);
+        assertEquals(expected, collect(threaded.takeWhile(value -> value < 4)));
+
+        ThreadSafeCounter threadSafe = new ThreadSafeCounter(Integer.MAX_VALUE);
+        assertEquals(expected, collect(threadSafe.takeWhile(value -> value < 4)));
+        assertEquals(4, threadSafe.computed);
+    }
+
+
+    @Test
+    void testAlreadyQueuedElements() throws InterruptedException {
+        ThreadedCounter threaded = new ThreadedCounter(100, 100);
+        for (int tries = 0; threaded.computed < 100 && tries < 5000; ++tries) {
+            Thread.sleep(1);
+        }
+
+        // Everything has already been queued, and so goes through the operators as they are added.
+        List<Integer> actual = collect(threaded.filter(value -> value % 10 == 0).map(value -> value / 10).limit(4));
+        assertEquals(Arrays.asList(1, 2, 3, 4), actual);
+    }
+
+
+    @Test
+    void testOperatorsAfterIterationStarts() {
+        try (ThreadedCounter threaded = new ThreadedCounter(1, 10)) {
+            assertTrue(threaded.hasNext());
+            assertThrows(IllegalStateException.class, () -> threaded.map(value -> value));
+        }
+
+        try (ThreadSafeCounter threadSafe = new ThreadSafeCounter(10)) {
+            assertTrue(threadSafe.hasNext());
+            assertThrows(IllegalStateException.class, () -> threadSafe.limit(1));
+        }
+    }
+
+
+    @Test
+    void testSourceCannotBeIteratedOnceOperatorsApplied() {
+        try (ThreadedCounter threaded = new ThreadedCounter(10, 10)) {
+            GeneratorPipeline<String> strings = threaded.map(String::valueOf);
+            // The queue now holds Strings, so the Integer typed source must not hand them out.
+            assertThrows(IllegalStateException.class, () -> threaded.hasNext());
+            assertThrows(IllegalStateException.class, () -> threaded.next());
+            assertThrows(IllegalStateException.class, () -> threaded.iterator());
+            try (GeneratorSelector<Integer> selector = new GeneratorSelector<>()) {
+                assertThrows(IllegalStateException.class, () -> selector.register(threaded));
+            }
+            assertEquals(Arrays.asList("1", "2", "3"), collect(strings.limit(3)));
+        }
+
+        try (ThreadSafeCounter threadSafe = new ThreadSafeCounter(10)) {
+            GeneratorPipeline<String> strings = threadSafe.map(String::valueOf);
+            assertThrows(IllegalStateException.class, () -> threadSafe.hasNext());
+            assertThrows(IllegalStateException.class, () -> threadSafe.next());
+            assertThrows(IllegalStateException.class, () -> threadSafe.iterator());
+            assertEquals(Arrays.asList("1", "2", "3"), collect(strings.limit(3)));
+        }
+    }
+
+
+    @Test
+    void testExtendedViewsAreUsedUp() {
+        try (ThreadedCounter threaded = new ThreadedCounter(10, 10)) {
+            GeneratorPipeline<String> strings = threaded.map(value -> "v" + value);
+            // A second operator on the generator would see the Strings as Integers.
+            assertThrows(IllegalStateException.class, () -> threaded.filter(value -> value % 2 == 0));
+            assertEquals(Arrays.asList("v1", "v2"), collect(strings.limit(2)));
+        }
+
+        try (ThreadSafeCounter threadSafe = new ThreadSafeCounter(10)) {
+            GeneratorPipeline<Integer> evens = threadSafe.filter(value -> value % 2 == 0);
+            GeneratorPipeline<String> strings = evens.map(value -> "v" + value);
+            // 'evens' now hands out Strings, so it can neither be iterated nor extended again.
+            assertThrows(IllegalStateException.class, () -> evens.iterator());
+            assertThrows(IllegalStateException.class, () -> evens.limit(1));
+            assertThrows(IllegalStateException.class, () -> threadSafe.limit(1));
+            assertEquals(Arrays.asList("v2", "v4", "v6", "v8", "v10"), collect(strings));
+        }
+    }
+
+
+    @Test
+    void testRefusedOperatorLeavesGeneratorIterable() {
+        try (ThreadedCounter threaded = new ThreadedCounter(1, 3)) {
+            assertTrue(threaded.hasNext());
+            assertEquals(1, threaded.next());
+            assertThrows(IllegalStateException.class, () -> threaded.map(value -> value));
+            assertTrue(threaded.hasNext());
+            assertEquals(2, threaded.next());
+        }
+    }
+
+
+    //-------------------------------------------------------------------------
+    private static class SerializedGenerator extends ThreadedGenerator<Integer> {
+        SerializedGenerator() {
+            super(10, new Serializer<Integer>() {
+                @Override
+                public void serialize(Integer item, DataOutput out) {
+                }
+
+                @Override
+                public Integer deserialize(DataInput in) {
+                    return 0;
+                }
+            });
+        }
+
+        @Override
+        protected void generator() throws InterruptedException {
+        }
+    }
+
+    @Test
+    void testOperatorsWithSerializer() {
+        try (SerializedGenerator iter = new SerializedGenerator()) {
+            assertThrows(IllegalStateException.class, () -> iter.filter(value -> true));
+        }
+    }
+
+}
@@ -0,0 +1,200 @@
+package ca.taylorsoftware.javagenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * @author Warren Taylor
+ * Created: 2026-10-19
+ * Copyright (c) 2026 Warren Taylor.  All right reserved.
+ */
+class GeneratorScopeTest {
+
+    //-------------------------------------------------------------------------
+    private static class CountingGenerator extends ThreadedGenerator<Integer> {
+        private final AtomicInteger running;
+        private final AtomicInteger maxRunning;
+
+        CountingGenerator(GeneratorScope scope, AtomicInteger running, AtomicInteger maxRunning) {
+            // Only start once the fields the background thread uses have been assigned.
+            super(scope, Integer.MAX_VALUE, true);
+            this.running = running;
+            this.maxRunning = maxRunning;
+            start();
+        }
+
+        @Override
+        protected void generator() throws InterruptedException {
+            int now = running.incrementAndGet();
+            maxRunning.accumulateAndGet(now, Math::max);
+            try {
+                for (int counter = 1; counter <= 3; ++counter) {
+                    Thread.sleep(5);
+                    yieldReturn(counter);
+                }
+            } finally {
+                running.decrementAndGet();
+            }
+        }
+    }
+
+    @Test
+    void testThreadBudget() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        try (GeneratorScope scope = new GeneratorScope(2, 100)) {
+            List<CountingGenerator> generators = new ArrayList<>();
+            for (int i = 0; i < 8; ++i) {
+                generators.add(new CountingGenerator(scope, running, maxRunning));
+            }
+            assertTrue(scope.runningThreads() <= 2);
+
+            for (CountingGenerator generator : generators) {
+                try (CountingGenerator iter = generator) {
+                    assertIterableEquals(Arrays.asList(1, 2, 3), iter);
+                }
+            }
+        }
+
+        assertTrue(maxRunning.get() <= 2);
+    }
+
+
+
+    //-------------------------------------------------------------------------
+    private static class EndlessGenerator extends ThreadedGenerator<Integer> {
+        volatile int produced = 0;
+        private final CountDownLatch go;
+
+        EndlessGenerator(GeneratorScope scope) {
+            this(scope, new CountDownLatch(0));
+        }
+
+        /**
+         * @param go the generator waits for this before yielding anything.
+         */
+        EndlessGenerator(GeneratorScope scope, CountDownLatch go) {
+            super(scope, Integer.MAX_VALUE, true);
+            this.go = go;
+            start();
+        }
+
+        @Override
+        protected void generator() throws InterruptedException {
+            go.await();
+            while (true) {
+                yieldReturn(produced);
+                ++produced;
+            }
+        }
+    }
+
+    private static class EndlessThreadSafeGenerator extends ThreadSafeGenerator<Integer> {
+        EndlessThreadSafeGenerator(GeneratorScope scope) {
+            super(scope);
+        }
+
+        @Override
+        protected void generator() throws InterruptedException {
+            int counter = 0;
+            while (true) {
+                yieldReturn(++counter);
+            }
+        }
+    }
+
+    /**
+     * Wait for the members of 'scope' to buffer 'expected' elements between them,
+     * checking all the while that they never buffer more than 'maxBufferedElements'.
+     */
+    private static void awaitBuffered(GeneratorScope scope, int expected, int maxBufferedElements) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        int buffered = scope.bufferedElements();
+        while (buffered != expected && System.nanoTime() < deadline) {
+            assertTrue(buffered <= maxBufferedElements, "buffered " + buffered);
+            Thread.sleep(1);
+            buffered = scope.bufferedElements();
+        }
+        assertEquals(expected, buffered);
+    }
+
+    @Test
+    void testRunAheadIsShared() throws InterruptedException {
+        CountDownLatch go = new CountDownLatch(1);
+
+        try (GeneratorScope scope = new GeneratorScope(4, 8)) {
+            // Both join the scope before either yields anything.
+            EndlessGenerator first = new EndlessGenerator(scope, go);
+            EndlessGenerator second = new EndlessGenerator(scope, go);
+            go.countDown();
+
+            awaitBuffered(scope, 8, 8);
+            // Each of the two members may buffer 8 / 2 elements.
+            assertTrue(first.produced <= 4);
+            assertTrue(second.produced <= 4);
+
+            // Taking an element from one makes room in that one only.
+            assertTrue(first.hasNext());
+            assertEquals(0, first.next());
+            awaitBuffered(scope, 8, 8);
+            assertTrue(second.produced <= 4);
+        }
+    }
+
+    @Test
+    void testLateMemberCanProgress() throws InterruptedException {
+        try (GeneratorScope scope = new GeneratorScope(4, 8)) {
+            EndlessGenerator first = new EndlessGenerator(scope);
+            awaitBuffered(scope, 8, 8);
+
+            // The first holds the whole allowance, yet a member joining later still gets one element at a time.
+            CountingGenerator second = new CountingGenerator(scope, new AtomicInteger(), new AtomicInteger());
+            assertIterableEquals(Arrays.asList(1, 2, 3), second);
+            assertEquals(8, scope.bufferedElements());
+            assertTrue(first.produced <= 8);
+        }
+    }
+
+    @Test
+    void testCloseClosesAllMembers() {
+        EndlessGenerator running;
+        EndlessGenerator pending;
+        EndlessThreadSafeGenerator threadSafe;
+
+        try (GeneratorScope scope = new GeneratorScope(2, 8)) {
+            running = new EndlessGenerator(scope);
+            threadSafe = new EndlessThreadSafeGenerator(scope);
+            pending = new EndlessGenerator(scope);
+            assertEquals(3, scope.size());
+            assertEquals(2, scope.runningThreads());
+        }
+
+        assertFalse(running.iterator().hasNext());
+        assertFalse(threadSafe.iterator().hasNext());
+        assertFalse(pending.iterator().hasNext());
+    }
+
+    @Test
+    void testJoinClosedScope() {
+        GeneratorScope scope = new GeneratorScope(1, 1);
+        scope.close();
+        assertThrows(IllegalStateException.class, () -> new EndlessGenerator(scope));
+    }
+
+    @Test
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new GeneratorScope(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new GeneratorScope(1, 0));
+    }
+
+}
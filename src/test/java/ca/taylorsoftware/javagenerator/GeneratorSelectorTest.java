@@ -0,0 +1,173 @@
+package ca.taylorsoftware.javagenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import ca.taylorsoftware.javagenerator.GeneratorSelector.Selection;
+
+
+/**
+ * @author Warren Taylor
+ * Created: 2026-10-19
+ * Copyright (c) 2026 Warren Taylor.  All right reserved.
+ */
+class GeneratorSelectorTest {
+
+    //-------------------------------------------------------------------------
+    private static class CountingGenerator extends ThreadedGenerator<Integer> {
+        private final int count;
+        private final long delayMillis;
+
+        CountingGenerator(int count, long delayMillis) {
+            super(null, 4, true);
+            this.count = count;
+            this.delayMillis = delayMillis;
+            start();
+        }
+
+        @Override
+        protected void generator() throws InterruptedException {
+            for (int value = 1; value <= count; ++value) {
+                if (delayMillis > 0) {
+                    Thread.sleep(delayMillis);
+                }
+                yieldReturn(value);
+            }
+        }
+    }
+
+
+    //-------------------------------------------------------------------------
+    private static class GatedGenerator extends ThreadedGenerator<Integer> {
+        private final CountDownLatch gate = new CountDownLatch(1);
+
+        GatedGenerator() {
+            super(null, 4, true);
+            start();
+        }
+
+        @Override
+        protected void generator() throws InterruptedException {
+            gate.await();
+            yieldReturn(42);
+        }
+    }
+
+
+    @Test
+    void testAllElementsFromAllGenerators() {
+        try (GeneratorSelector<Integer> selector = new GeneratorSelector<>()) {
+            List<CountingGenerator> generators = new ArrayList<>();
+            for (int index = 0; index < 10; ++index) {
+                CountingGenerator generator = new CountingGenerator(100, index % 3);
+                generators.add(generator);
+                selector.register(generator);
+            }
+
+            Map<ThreadedGenerator<? extends Integer>, Integer> lastValues = new HashMap<>();
+            int total = 0;
+            for (Selection<Integer> selection = selector.select(); selection != null; selection = selector.select()) {
+                // Each generator's own elements still arrive in order.
+                int last = lastValues.getOrDefault(selection.getSource(), 0);
+                assertEquals(last + 1, selection.getValue());
+                lastValues.put(selection.getSource(), selection.getValue());
+                ++total;
+            }
+
+            assertEquals(1000, total);
+            assertEquals(10, lastValues.size());
+            // Finished generators are deregistered.
+            assertEquals(0, selector.size());
+        }
+    }
+
+
+    @Test
+    void testNotBlockedByAnEmptyGenerator() throws InterruptedException {
+        try (GeneratorSelector<Integer> selector = new GeneratorSelector<>()) {
+            GatedGenerator gated = new GatedGenerator();
+            selector.register(gated);
+            selector.register(new CountingGenerator(3, 0));
+
+            for (int value = 1; value <= 3; ++value) {
+                Selection<Integer> selection = selector.select();
+                assertEquals(value, selection.getValue());
+            }
+            assertNull(selector.selectNow());
+            assertNull(selector.select(10, TimeUnit.MILLISECONDS));
+
+            // Woken by 'yieldReturn(...)'.
+            Thread opener = new Thread(() -> {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException ex) {
+                }
+                gated.gate.countDown();
+            });
+            opener.start();
+            Selection<Integer> selection = selector.select();
+            assertSame(gated, selection.getSource());
+            assertEquals(42, selection.getValue());
+            assertNull(selector.select());
+            opener.join();
+        }
+    }
+
+
+    @Test
+    void testFairRotation() throws InterruptedException {
+        try (GeneratorSelector<Integer> selector = new GeneratorSelector<>()) {
+            CountingGenerator first = new CountingGenerator(100, 0);
+            CountingGenerator second = new CountingGenerator(100, 0);
+            selector.register(first);
+            selector.register(second);
+            // Let both fill their queues.
+            Thread.sleep(50);
+
+            ThreadedGenerator<? extends Integer> previous = null;
+            for (int count = 0; count < 8; ++count) {
+                Selection<Integer> selection = selector.select();
+                assertNotSame(previous, selection.getSource());
+                previous = selection.getSource();
+            }
+        }
+    }
+
+
+    @Test
+    void testCloseClosesGenerators() {
+        GatedGenerator gated = new GatedGenerator();
+        GeneratorSelector<Integer> selector = new GeneratorSelector<>();
+        selector.register(gated);
+        selector.close();
+
+        assertNull(selector.select());
+        assertFalse(gated.hasNext());
+        assertThrows(IllegalStateException.class, () -> selector.register(new GatedGenerator()));
+    }
+
+
+    @Test
+    void testOneSelectorPerGenerator() {
+        try (GeneratorSelector<Integer> first = new GeneratorSelector<>();
+                GeneratorSelector<Integer> second = new GeneratorSelector<>()) {
+            GatedGenerator gated = new GatedGenerator();
+            first.register(gated);
+            assertThrows(IllegalStateException.class, () -> second.register(gated));
+
+            first.deregister(gated);
+            second.register(gated);
+            assertEquals(0, first.size());
+            assertEquals(1, second.size());
+        }
+    }
+
+}
@@ -0,0 +1,149 @@
+package ca.taylorsoftware.javagenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * @author Warren Taylor
+ * Created: 2026-10-19
+ * Copyright (c) 2026 Warren Taylor.  All right reserved.
+ */
+class GeneratorTest {
+
+    //-------------------------------------------------------------------------
+    private static class CountingGenerator extends Generator<Integer> {
+        private final int count;
+
+        /** The number of elements computed; read by the foreground thread. */
+        volatile int computed = 0;
+
+        CountingGenerator(HandoffPolicy handoffPolicy, int count) {
+            super(handoffPolicy);
+            this.count = count;
+        }
+
+        @Override
+        protected void generator() throws InterruptedException {
+            for (int value = 1; value <= count; ++value) {
+                computed = value;
+                yieldReturn(value);
+            }
+        }
+    }
+
+
+    private static void waitFor(CountingGenerator iter, int computed) throws InterruptedException {
+        for (int tries = 0; iter.computed < computed && tries < 5000; ++tries) {
+            Thread.sleep(1);
+        }
+    }
+
+
+    @Test
+    void testLockstep() throws InterruptedException {
+        try (CountingGenerator iter = new CountingGenerator(HandoffPolicy.lockstep(), 100)) {
+            int expected = 0;
+            for (int it : iter) {
+                assertEquals(++expected, it);
+                // The background thread must not compute anything while the foreground thread is running.
+                Thread.sleep(1);
+                assertEquals(expected, iter.computed);
+            }
+            assertEquals(100, expected);
+        }
+    }
+
+
+    @Test
+    void testRunAhead() throws InterruptedException {
+        try (CountingGenerator iter = new CountingGenerator(HandoffPolicy.runAhead(10), 100)) {
+            assertTrue(iter.hasNext());
+            assertEquals(1, iter.next());
+            waitFor(iter, 12);
+            // 10 queued plus one in hand.
+            assertEquals(12, iter.computed);
+
+            List<Integer> rest = new ArrayList<>();
+            for (int it : iter) {
+                rest.add(it);
+            }
+            assertEquals(99, rest.size());
+            assertEquals(100, rest.get(98));
+        }
+    }
+
+
+    @Test
+    void testSwitchWhileIterating() throws InterruptedException {
+        try (CountingGenerator iter = new CountingGenerator(HandoffPolicy.lockstep(), 1000)) {
+            int expected = 0;
+            for (int it : iter) {
+                assertEquals(++expected, it);
+
+                if (expected == 10) {
+                    Thread.sleep(10);
+                    assertEquals(10, iter.computed);
+
+                    // Bulk drain.
+                    iter.setHandoffPolicy(HandoffPolicy.runAhead(100));
+                    waitFor(iter, 111);
+                    assertEquals(111, iter.computed);
+                }
+
+                if (expected == 500) {
+                    iter.setHandoffPolicy(HandoffPolicy.lockstep());
+                    assertTrue(iter.getHandoffPolicy().isLockstep());
+                }
+                if (expected == 700) {
+                    // Anything queued before the switch has long since been consumed.
+                    Thread.sleep(10);
+                    assertEquals(700, iter.computed);
+                }
+            }
+            assertEquals(1000, expected);
+        }
+    }
+
+
+    @Test
+    void testSkip() {
+        for (HandoffPolicy handoffPolicy : new HandoffPolicy[] {HandoffPolicy.lockstep(), HandoffPolicy.runAhead(10)}) {
+            try (CountingGenerator iter = new CountingGenerator(handoffPolicy, 100)) {
+                iter.skip(50);
+                assertTrue(iter.hasNext());
+                assertEquals(51, iter.next());
+
+                iter.skip(1000);
+                assertFalse(iter.hasNext());
+            }
+        }
+    }
+
+
+    @Test
+    void testPrematureClose() {
+        try (CountingGenerator iter = new CountingGenerator(HandoffPolicy.runAhead(10), Integer.MAX_VALUE)) {
+            int counter = 0;
+            for (int it : iter) {
+                assertEquals(++counter, it);
+                if (counter == 100) {
+                    iter.close();
+                }
+            }
+            assertEquals(100, counter);
+        }
+    }
+
+
+    @Test
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> HandoffPolicy.runAhead(0));
+        assertThrows(IllegalArgumentException.class, () -> new CountingGenerator(null, 1));
+    }
+
+}
@@ -0,0 +1,73 @@
+package ca.taylorsoftware.javagenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * @author Warren Taylor
+ * Created: 2026-10-19
+ * Copyright (c) 2026 Warren Taylor.  All right reserved.
+ */
+class LatencyHistogramTest {
+
+    @Test
+    void testBucketsCoverEveryValue() {
+        long[] values = {0, 1, 63, 64, 65, 127, 128, 1000, 123456789L, Long.MAX_VALUE / 3, Long.MAX_VALUE};
+        for (long value : values) {
+            int index = LatencyHistogram.bucketIndex(value);
+            long upper = LatencyHistogram.bucketUpperBound(index);
+            assertTrue(upper >= value, "value " + value);
+            // Within about 3%.
+            assertTrue(upper - value <= value / 32, "value " + value);
+            if (index > 0) {
+                assertTrue(LatencyHistogram.bucketUpperBound(index - 1) < value, "value " + value);
+            }
+        }
+    }
+
+
+    @Test
+    void testBucketsAreContiguous() {
+        for (int index = 1; index <= LatencyHistogram.bucketIndex(Long.MAX_VALUE); ++index) {
+            long lower = LatencyHistogram.bucketUpperBound(index - 1) + 1;
+            assertEquals(index, LatencyHistogram.bucketIndex(lower));
+        }
+    }
+
+
+    @Test
+    void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentile(99));
+
+        for (long value = 1; value <= 10000; ++value) {
+            histogram.record(value * 1000);
+        }
+        assertEquals(10000, histogram.getCount());
+        assertEquals(10_000_000, histogram.getMax());
+        assertEquals(5_000_000, histogram.getPercentile(50), 5_000_000 / 32.0);
+        assertEquals(9_900_000, histogram.getPercentile(99), 9_900_000 / 32.0);
+        assertEquals(9_990_000, histogram.getPercentile(99.9), 9_990_000 / 32.0);
+        assertEquals(10_000_000, histogram.getPercentile(100));
+
+        histogram.record(-5);
+        assertEquals(0, histogram.getPercentile(0));
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertThrows(IllegalArgumentException.class, () -> histogram.getPercentile(101));
+    }
+
+
+    @Test
+    void testToString() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1500);
+        histogram.record(2_000_000);
+        assertEquals("count=2 p50=1.5us p99=2.0ms p99.9=2.0ms max=2.0ms", histogram.toString());
+    }
+
+}
@@ -0,0 +1,73 @@
+package ca.taylorsoftware.javagenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * @author Warren Taylor
+ * Created: 2026-10-19
+ * Copyright (c) 2026 Warren Taylor.  All right reserved.
+ */
+class LatencyTracerTest {
+
+    @Test
+    void testTimestampsInQueueOrder() {
+        LatencyTracer tracer = new LatencyTracer(2);
+        for (long now = 1; now <= 100; ++now) {
+            tracer.enqueued(now);
+        }
+
+        // Those queued before tracing began come first.
+        assertEquals(-1, tracer.dequeued());
+        assertEquals(-1, tracer.dequeued());
+        for (long now = 1; now <= 100; ++now) {
+            assertEquals(now, tracer.dequeued());
+        }
+        assertEquals(99, tracer.interArrival.getCount());
+        assertEquals(0, tracer.droppedTimestamps());
+    }
+
+
+    @Test
+    void testRingIsCapped() {
+        LatencyTracer tracer = new LatencyTracer(0, 4);
+        for (long now = 1; now <= 6; ++now) {
+            tracer.enqueued(now);
+        }
+        assertEquals(2, tracer.droppedTimestamps());
+
+        // Taking one makes room, but the next element is still timed only after those dropped.
+        assertEquals(1, tracer.dequeued());
+        tracer.enqueued(7);
+        assertEquals(3, tracer.droppedTimestamps());
+
+        assertEquals(2, tracer.dequeued());
+        assertEquals(3, tracer.dequeued());
+        assertEquals(4, tracer.dequeued());
+        assertEquals(-1, tracer.dequeued());
+        assertEquals(-1, tracer.dequeued());
+        assertEquals(-1, tracer.dequeued());
+
+        // Once those have been taken, elements are timed again.
+        tracer.enqueued(8);
+        assertEquals(8, tracer.dequeued());
+        assertEquals(3, tracer.droppedTimestamps());
+    }
+
+
+    @Test
+    void testCleared() {
+        LatencyTracer tracer = new LatencyTracer(0, 2);
+        for (long now = 1; now <= 4; ++now) {
+            tracer.enqueued(now);
+        }
+
+        tracer.cleared(1);
+        tracer.enqueued(5);
+        assertEquals(-1, tracer.dequeued());
+        assertEquals(5, tracer.dequeued());
+    }
+
+}
@@ -0,0 +1,189 @@
+package ca.taylorsoftware.javagenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import ca.taylorsoftware.javagenerator.MappedRecordGenerator.Framing;
+
+
+/**
+ * @author Warren Taylor
+ * Created: 2026-10-19
+ * Copyright (c) 2026 Warren Taylor.  All right reserved.
+ */
+class MappedRecordGeneratorTest {
+
+    @TempDir
+    Path dir;
+
+    private static final List<String> RECORDS = Arrays.asList("one", "two", "", "three", "four", "five", "six", "seventeen");
+
+
+    private static List<String> collect(MappedRecordGenerator generator) {
+        List<String> result = new ArrayList<>();
+        collect(generator, result);
+        return result;
+    }
+
+
+    private static void collect(MappedRecordGenerator generator, List<String> result) {
+        try (MappedRecordGenerator iter = generator) {
+            for (ByteBuffer record : iter) {
+                assertTrue(record.isReadOnly());
+                byte[] bytes = new byte[record.remaining()];
+                record.get(bytes);
+                result.add(new String(bytes, StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+
+    private Path writeDelimited(boolean isTerminated) throws IOException {
+        String content = String.join("\n", RECORDS) + (isTerminated ? "\n" : "");
+        return Files.write(dir.resolve("delimited.txt"), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+
+    private Path writeLengthPrefixed(ByteOrder order) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1024).order(order);
+        for (String record : RECORDS) {
+            byte[] bytes = record.getBytes(StandardCharsets.UTF_8);
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+        }
+        return Files.write(dir.resolve("prefixed.bin"), Arrays.copyOf(buffer.array(), buffer.position()));
+    }
+
+
+    @Test
+    void testDelimited() throws IOException {
+        assertEquals(RECORDS, collect(new MappedRecordGenerator(writeDelimited(true), (byte) '\n')));
+        assertEquals(RECORDS, collect(new MappedRecordGenerator(writeDelimited(false), (byte) '\n', 1)));
+    }
+
+
+    @Test
+    void testDelimitedSmallWindows() throws IOException {
+        for (long windowSize = 10; windowSize < 40; ++windowSize) {
+            MappedRecordGenerator generator = new MappedRecordGenerator(writeDelimited(false), Framing.DELIMITED,
+                    (byte) '\n', ByteOrder.BIG_ENDIAN, 2, windowSize);
+            assertEquals(RECORDS, collect(generator));
+        }
+    }
+
+
+    @Test
+    void testLengthPrefixed() throws IOException {
+        for (ByteOrder order : new ByteOrder[] {ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN}) {
+            assertEquals(RECORDS, collect(new MappedRecordGenerator(writeLengthPrefixed(order), order, 4)));
+        }
+    }
+
+
+    @Test
+    void testLengthPrefixedSmallWindows() throws IOException {
+        Path path = writeLengthPrefixed(ByteOrder.BIG_ENDIAN);
+        for (long windowSize = 13; windowSize < 40; ++windowSize) {
+            MappedRecordGenerator generator = new MappedRecordGenerator(path, Framing.LENGTH_PREFIXED,
+                    (byte) 0, ByteOrder.BIG_ENDIAN, 2, windowSize);
+            assertEquals(RECORDS, collect(generator));
+        }
+    }
+
+
+    @Test
+    void testRecordLargerThanWindow() throws IOException {
+        MappedRecordGenerator generator = new MappedRecordGenerator(writeDelimited(false), Framing.DELIMITED,
+                (byte) '\n', ByteOrder.BIG_ENDIAN, 2, 8);
+        List<String> records = new ArrayList<>();
+        UncheckedIOException ex = assertThrows(UncheckedIOException.class, () -> collect(generator, records));
+
+        // Generation stops at "seventeen", the first record that does not fit.
+        assertEquals(RECORDS.subList(0, 7), records);
+        assertTrue(ex.getCause().getMessage().contains("larger than 8 bytes"));
+        assertSame(ex.getCause(), generator.getFailure());
+    }
+
+
+    @Test
+    void testNegativeLength() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(11);
+        buffer.putInt(3).put("one".getBytes(StandardCharsets.UTF_8)).putInt(-1);
+        Path path = Files.write(dir.resolve("negative.bin"), buffer.array());
+
+        List<String> records = new ArrayList<>();
+        UncheckedIOException ex = assertThrows(UncheckedIOException.class,
+                () -> collect(new MappedRecordGenerator(path, ByteOrder.BIG_ENDIAN, 4), records));
+        assertEquals(Arrays.asList("one"), records);
+        assertTrue(ex.getCause().getMessage().contains("negative record length -1"));
+    }
+
+
+    @Test
+    void testTruncatedLastRecord() throws IOException {
+        Path complete = writeLengthPrefixed(ByteOrder.BIG_ENDIAN);
+        byte[] bytes = Files.readAllBytes(complete);
+        Path path = Files.write(dir.resolve("truncated.bin"), Arrays.copyOf(bytes, bytes.length - 2));
+
+        List<String> records = new ArrayList<>();
+        UncheckedIOException ex = assertThrows(UncheckedIOException.class,
+                () -> collect(new MappedRecordGenerator(path, ByteOrder.BIG_ENDIAN, 4), records));
+        assertEquals(RECORDS.subList(0, RECORDS.size() - 1), records);
+        assertTrue(ex.getCause().getMessage().contains("truncated"));
+    }
+
+
+    @Test
+    void testFailureThroughPipeline() throws IOException {
+        MappedRecordGenerator generator = new MappedRecordGenerator(writeDelimited(false), Framing.DELIMITED,
+                (byte) '\n', ByteOrder.BIG_ENDIAN, 2, 8);
+        List<Integer> lengths = new ArrayList<>();
+        UncheckedIOException ex = assertThrows(UncheckedIOException.class, () -> {
+            try (GeneratorPipeline<Integer> pipeline = generator.map(ByteBuffer::remaining)) {
+                for (int length : pipeline) {
+                    lengths.add(length);
+                }
+            }
+        });
+
+        assertEquals(Arrays.asList(3, 3, 0, 5, 4, 4, 3), lengths);
+        assertSame(ex.getCause(), generator.getFailure());
+    }
+
+
+    @Test
+    void testEmptyFile() throws IOException {
+        Path path = Files.write(dir.resolve("empty.txt"), new byte[0]);
+        assertTrue(collect(new MappedRecordGenerator(path, (byte) '\n')).isEmpty());
+    }
+
+
+    @Test
+    void testPrematureClose() throws IOException {
+        try (MappedRecordGenerator iter = new MappedRecordGenerator(writeDelimited(true), (byte) '\n', 1)) {
+            assertTrue(iter.hasNext());
+            iter.close();
+            assertFalse(iter.hasNext());
+        }
+    }
+
+
+    @Test
+    void testMissingFile() {
+        assertThrows(IOException.class, () -> new MappedRecordGenerator(dir.resolve("missing"), (byte) '\n'));
+    }
+
+}
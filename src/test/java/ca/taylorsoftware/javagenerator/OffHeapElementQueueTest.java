@@ -0,0 +1,204 @@
+package ca.taylorsoftware.javagenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * @author Warren Taylor
+ * Created: 2026-10-19
+ * Copyright (c) 2026 Warren Taylor.  All right reserved.
+ */
+class OffHeapElementQueueTest {
+
+    private static final Serializer<String> STRINGS = new Serializer<String>() {
+        @Override
+        public void serialize(String item, DataOutput out) throws IOException {
+            out.writeUTF(item);
+        }
+
+        @Override
+        public String deserialize(DataInput in) throws IOException {
+            return in.readUTF();
+        }
+    };
+
+    /** Each element takes exactly 8 bytes of a segment, 4 for its length and 4 for itself. */
+    private static final Serializer<Integer> INTEGERS = new Serializer<Integer>() {
+        @Override
+        public void serialize(Integer item, DataOutput out) throws IOException {
+            out.writeInt(item);
+        }
+
+        @Override
+        public Integer deserialize(DataInput in) throws IOException {
+            return in.readInt();
+        }
+    };
+
+
+    @Test
+    void testSegmentsStartSmallAndGrow() {
+        final int initial = OffHeapElementQueue.INITIAL_SEGMENT_SIZE;
+        OffHeapElementQueue<Integer> queue = new OffHeapElementQueue<>(INTEGERS, 4 * initial);
+        int added = 0;
+
+        // A queue holding a single element only ties up the first, small, segment.
+        queue.addLast(added++);
+        assertEquals(initial, queue.directCapacity());
+
+        // Each new segment is twice the one before, up to the segment size.
+        int[] expected = {initial, 3 * initial, 7 * initial, 11 * initial, 15 * initial};
+        for (int capacity : expected) {
+            while (added * 8 < capacity) {
+                queue.addLast(added++);
+            }
+            assertEquals(capacity, queue.directCapacity());
+        }
+        queue.addLast(added++);
+        assertEquals(19 * initial, queue.directCapacity());
+
+        // Once drained, the only segment left and the largest of the others, kept as a spare, remain.
+        for (int count = 0; count < added; ++count) {
+            assertEquals(count, queue.removeFirst());
+        }
+        assertEquals(8 * initial, queue.directCapacity());
+
+        // Filling more than one segment again reuses the spare rather than allocating.
+        for (int count = 0; count < initial; ++count) {
+            queue.addLast(count);
+        }
+        assertEquals(8 * initial, queue.directCapacity());
+    }
+
+
+    @Test
+    void testFifoAcrossSegments() {
+        // Small segments so that elements are spread over many of them.
+        OffHeapElementQueue<String> queue = new OffHeapElementQueue<>(STRINGS, 32);
+        int added = 0;
+        int removed = 0;
+
+        for (int round = 0; round < 100; ++round) {
+            for (int count = 0; count < round % 7 + 1; ++count) {
+                queue.addLast("element " + added++);
+            }
+            for (int count = 0; count < round % 5 + 1 && !queue.isEmpty(); ++count) {
+                assertEquals("element " + removed++, queue.removeFirst());
+            }
+            assertEquals(added - removed, queue.size());
+        }
+
+        while (!queue.isEmpty()) {
+            assertEquals("element " + removed++, queue.removeFirst());
+        }
+        assertEquals(added, removed);
+        assertThrows(NoSuchElementException.class, () -> queue.removeFirst());
+    }
+
+
+    @Test
+    void testElementLargerThanSegment() {
+        OffHeapElementQueue<String> queue = new OffHeapElementQueue<>(STRINGS, 16);
+        StringBuilder large = new StringBuilder();
+        for (int count = 0; count < 1000; ++count) {
+            large.append('x');
+        }
+
+        queue.addLast("small");
+        queue.addLast(large.toString());
+        queue.addLast("after");
+        assertEquals("small", queue.removeFirst());
+        assertEquals(large.toString(), queue.removeFirst());
+        assertEquals("after", queue.removeFirst());
+        assertTrue(queue.isEmpty());
+    }
+
+
+    @Test
+    void testDiscardFirst() {
+        OffHeapElementQueue<String> queue = new OffHeapElementQueue<>(STRINGS, 32);
+        for (int count = 0; count < 100; ++count) {
+            queue.addLast("element " + count);
+        }
+        for (int count = 0; count < 99; ++count) {
+            queue.discardFirst();
+        }
+        assertEquals(1, queue.size());
+        assertEquals("element 99", queue.removeFirst());
+    }
+
+
+    @Test
+    void testClear() {
+        OffHeapElementQueue<String> queue = new OffHeapElementQueue<>(STRINGS, 32);
+        for (int count = 0; count < 100; ++count) {
+            queue.addLast("element " + count);
+        }
+        queue.clear();
+        assertTrue(queue.isEmpty());
+
+        queue.addLast("again");
+        assertEquals("again", queue.removeFirst());
+    }
+
+
+
+    //-------------------------------------------------------------------------
+    private static class CountingGenerator extends ThreadedGenerator<String> {
+        private static final int COUNT = 100000;
+
+        CountingGenerator(int maxQueueSize) {
+            super(maxQueueSize, STRINGS);
+        }
+
+        @Override
+        protected void generator() throws InterruptedException {
+            for (int count = 0; count < COUNT; ++count) {
+                yieldReturn("element " + count);
+            }
+        }
+    }
+
+    @Test
+    void testThreadedGenerator() {
+        for (int maxQueueSize : new int[] {1, 1000, Integer.MAX_VALUE}) {
+            List<String> actual = new ArrayList<>();
+            try (CountingGenerator iter = new CountingGenerator(maxQueueSize)) {
+                for (String item : iter) {
+                    actual.add(item);
+                }
+            }
+
+            assertEquals(CountingGenerator.COUNT, actual.size());
+            for (int count = 0; count < CountingGenerator.COUNT; ++count) {
+                assertEquals("element " + count, actual.get(count));
+            }
+        }
+    }
+
+
+    @Test
+    void testThreadedGeneratorPrematureClose() {
+        try (CountingGenerator iter = new CountingGenerator(Integer.MAX_VALUE)) {
+            int counter = 0;
+            for (String item : iter) {
+                assertEquals("element " + counter++, item);
+                if (counter == 10) {
+                    iter.close();
+                }
+            }
+            assertEquals(10, counter);
+            assertFalse(iter.hasNext());
+        }
+    }
+
+}
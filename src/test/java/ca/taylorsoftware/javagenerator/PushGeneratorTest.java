@@ -0,0 +1,187 @@
+package ca.taylorsoftware.javagenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * @author Warren Taylor
+ * Created: 2026-10-19
+ * Copyright (c) 2026 Warren Taylor.  All right reserved.
+ */
+class PushGeneratorTest {
+
+    private final ExecutorService pool = Executors.newFixedThreadPool(2);
+
+
+    @AfterEach
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+
+    //-------------------------------------------------------------------------
+    /**
+     * Produces 1..count on 'executor', in batches of 3 as if each read returned several records.
+     */
+    private static class CountingGenerator extends PushGenerator<Integer> {
+        private final ExecutorService executor;
+        private final int count;
+        private int next = 1;
+
+        final AtomicInteger produced = new AtomicInteger();
+        final AtomicInteger resumes = new AtomicInteger();
+
+        CountingGenerator(ExecutorService executor, int count, int maxQueueSize) {
+            super(maxQueueSize);
+            this.executor = executor;
+            this.count = count;
+        }
+
+        @Override
+        protected void resume() {
+            resumes.incrementAndGet();
+            executor.execute(this::produce);
+        }
+
+        private void produce() {
+            do {
+                for (int batch = 0; batch < 3 && next <= count; ++batch) {
+                    produced.incrementAndGet();
+                    yieldReturn(next++);
+                }
+                if (next > count) {
+                    complete();
+                    return;
+                }
+            } while (mayContinue());
+        }
+    }
+
+
+    @Test
+    void testBackpressure() {
+        try (CountingGenerator generator = new CountingGenerator(pool, 1000, 8)) {
+            int expected = 0;
+            for (int value : generator) {
+                assertEquals(++expected, value);
+                // Never more than a full queue, plus the rest of the batch in hand, ahead of the foreground.
+                assertTrue(generator.produced.get() - expected <= 8 + 3);
+            }
+            assertEquals(1000, expected);
+            // Paused, and resumed, many times along the way.
+            assertTrue(generator.resumes.get() > 10);
+        }
+    }
+
+
+    @Test
+    void testManyGeneratorsShareThreads() {
+        List<CountingGenerator> generators = new ArrayList<>();
+        for (int index = 0; index < 1000; ++index) {
+            generators.add(new CountingGenerator(pool, 20, 4));
+        }
+
+        int total = 0;
+        for (CountingGenerator generator : generators) {
+            try (CountingGenerator iter = generator) {
+                for (int value : iter) {
+                    total += value;
+                }
+            }
+        }
+        assertEquals(1000 * (20 * 21 / 2), total);
+    }
+
+
+    @Test
+    void testFailAfterQueuedElements() {
+        IOException cause = new IOException("read failed");
+        PushGenerator<String> generator = new PushGenerator<String>() {
+            @Override
+            protected void resume() {
+                pool.execute(() -> {
+                    yieldReturn("one");
+                    yieldReturn("two");
+                    fail(cause);
+                });
+            }
+        };
+
+        try (PushGenerator<String> iter = generator) {
+            assertTrue(iter.hasNext());
+            assertEquals("one", iter.next());
+            assertTrue(iter.hasNext());
+            assertEquals("two", iter.next());
+            CompletionException ex = assertThrows(CompletionException.class, iter::hasNext);
+            assertSame(cause, ex.getCause());
+            // Nothing more is accepted once failed.
+            assertFalse(iter.yieldReturn("three"));
+        }
+    }
+
+
+    @Test
+    void testResumeThrows() {
+        IllegalStateException cause = new IllegalStateException();
+        try (PushGenerator<String> generator = new PushGenerator<String>() {
+            @Override
+            protected void resume() {
+                throw cause;
+            }
+        }) {
+            CompletionException ex = assertThrows(CompletionException.class, generator::hasNext);
+            assertSame(cause, ex.getCause());
+        }
+    }
+
+
+    @Test
+    void testYieldOnTheForegroundThread() {
+        // A source that completes straight away, inside 'resume()'.
+        try (PushGenerator<Integer> generator = new PushGenerator<Integer>(2) {
+            private int next = 1;
+
+            @Override
+            protected void resume() {
+                do {
+                    yieldReturn(next++);
+                } while (next <= 10 && mayContinue());
+                if (next > 10) {
+                    complete();
+                }
+            }
+        }) {
+            int expected = 0;
+            for (int value : generator) {
+                assertEquals(++expected, value);
+            }
+            assertEquals(10, expected);
+        }
+    }
+
+
+    @Test
+    void testClose() {
+        CountingGenerator generator = new CountingGenerator(pool, Integer.MAX_VALUE, 4);
+        assertTrue(generator.hasNext());
+        assertEquals(1, generator.next());
+        generator.close();
+
+        assertFalse(generator.hasNext());
+        assertFalse(generator.canKeepGoing());
+        assertFalse(generator.yieldReturn(-1));
+        assertFalse(generator.mayContinue());
+    }
+
+}
@@ -0,0 +1,247 @@
+package ca.taylorsoftware.javagenerator;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import ca.taylorsoftware.javagenerator.RecursiveGenerator.Ordering;
+
+
+/**
+ * @author Warren Taylor
+ * Created: 2026-10-19
+ * Copyright (c) 2026 Warren Taylor.  All right reserved.
+ */
+class RecursiveGeneratorTest {
+
+    //-------------------------------------------------------------------------
+    private static class EmptyGenerator extends RecursiveGenerator<String> {
+        @Override
+        protected void generator() throws InterruptedException {
+        }
+    }
+
+    @Test
+    void testEmptyGenerator() {
+        try (EmptyGenerator iter = new EmptyGenerator()) {
+            assertIterableEquals(new ArrayList<String>(), iter);
+        }
+    }
+
+
+
+    //-------------------------------------------------------------------------
+    /**
+     * Yields the nodes of a complete tree, numbered in depth first order,
+     * forking one step per child.
+     */
+    private static class TreeGenerator extends RecursiveGenerator<Integer> {
+        private final int fanOut;
+        private final int depth;
+
+        TreeGenerator(int fanOut, int depth, int maxQueueSize, Ordering ordering, ForkJoinPool pool) {
+            super(maxQueueSize, ordering, pool);
+            this.fanOut = fanOut;
+            this.depth = depth;
+        }
+
+        @Override
+        protected void generator() throws InterruptedException {
+            visit(0, 0);
+        }
+
+        private void visit(int node, int level) throws InterruptedException {
+            yieldReturn(node);
+            if (level == depth) {
+                return;
+            }
+
+            int child = node + 1;
+            for (int i = 0; i < fanOut; ++i) {
+                final int childNode = child;
+                fork(() -> visit(childNode, level + 1));
+                child += subtreeSize(level + 1);
+            }
+        }
+
+        int subtreeSize(int level) {
+            int size = 1;
+            for (int l = depth; l > level; --l) {
+                size = size * fanOut + 1;
+            }
+            return size;
+        }
+    }
+
+
+    private static List<Integer> expectedTree(TreeGenerator generator) {
+        List<Integer> expected = new ArrayList<>();
+        for (int node = 0; node < generator.subtreeSize(0); ++node) {
+            expected.add(node);
+        }
+        return expected;
+    }
+
+
+    private static List<Integer> collect(Iterable<Integer> iterable) {
+        List<Integer> result = new ArrayList<>();
+        for (Integer it : iterable) {
+            result.add(it);
+        }
+        return result;
+    }
+
+
+    @Test
+    void testDepthFirstOrdering() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int maxQueueSize : new int[] {1, 3, 1000}) {
+                try (TreeGenerator iter = new TreeGenerator(4, 4, maxQueueSize, Ordering.DEPTH_FIRST, pool)) {
+                    assertEquals(expectedTree(iter), collect(iter));
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+
+    @Test
+    void testUnordered() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int maxQueueSize : new int[] {1, 3, 1000}) {
+                try (TreeGenerator iter = new TreeGenerator(4, 4, maxQueueSize, Ordering.UNORDERED, pool)) {
+                    List<Integer> actual = collect(iter);
+                    Collections.sort(actual);
+                    assertEquals(expectedTree(iter), actual);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+
+    @Test
+    void testCommonPool() {
+        try (TreeGenerator iter = new TreeGenerator(3, 3, 2, Ordering.DEPTH_FIRST, ForkJoinPool.commonPool())) {
+            assertEquals(expectedTree(iter), collect(iter));
+        }
+    }
+
+
+    //-------------------------------------------------------------------------
+    /**
+     * Forks 'steps' steps from the root, each yielding 'yields' consecutive numbers,
+     * so that far more steps are forked than the buffer can hold the output of.
+     */
+    private static class WideGenerator extends RecursiveGenerator<Integer> {
+        private final int steps;
+        private final int yields;
+        private final int failingStep;
+
+        WideGenerator(int steps, int yields, int failingStep, int maxQueueSize, Ordering ordering, ForkJoinPool pool) {
+            super(maxQueueSize, ordering, pool);
+            this.steps = steps;
+            this.yields = yields;
+            this.failingStep = failingStep;
+        }
+
+        @Override
+        protected void generator() throws InterruptedException {
+            for (int step = 0; step < steps; ++step) {
+                final int first = step * yields;
+                final boolean isFailing = step == failingStep;
+                fork(() -> {
+                    if (isFailing) {
+                        throw new IllegalStateException("step failed");
+                    }
+                    for (int value = first; value < first + yields; ++value) {
+                        yieldReturn(value);
+                    }
+                });
+            }
+        }
+    }
+
+    private static List<Integer> expectedWide(int count) {
+        List<Integer> expected = new ArrayList<>();
+        for (int value = 0; value < count; ++value) {
+            expected.add(value);
+        }
+        return expected;
+    }
+
+    @Test
+    void testWideFanOutOnCommonPool() {
+        try (WideGenerator iter = new WideGenerator(3000, 10, -1, 4, Ordering.UNORDERED, ForkJoinPool.commonPool())) {
+            List<Integer> actual = collect(iter);
+            Collections.sort(actual);
+            assertEquals(expectedWide(30000), actual);
+        }
+
+        try (WideGenerator iter = new WideGenerator(3000, 10, -1, 4, Ordering.DEPTH_FIRST, ForkJoinPool.commonPool())) {
+            assertEquals(expectedWide(30000), collect(iter));
+        }
+    }
+
+    @Test
+    void testWideFanOutOnSmallPool() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            try (WideGenerator iter = new WideGenerator(3000, 10, -1, 4, Ordering.DEPTH_FIRST, pool)) {
+                assertEquals(expectedWide(30000), collect(iter));
+            }
+            // Only the running steps, and the pool's compensation for them, need threads.
+            assertThat(pool.getPoolSize(), lessThanOrEqualTo(16));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testFailingStep() {
+        for (Ordering ordering : Ordering.values()) {
+            try (WideGenerator iter = new WideGenerator(100, 10, 50, 4, ordering, ForkJoinPool.commonPool())) {
+                CompletionException ex = assertThrows(CompletionException.class, () -> collect(iter));
+                assertEquals("step failed", ex.getCause().getMessage());
+            }
+        }
+    }
+
+
+    @Test
+    void testPrematureClose() {
+        try (TreeGenerator iter = new TreeGenerator(10, 6, 4, Ordering.UNORDERED, ForkJoinPool.commonPool())) {
+            int counter = 0;
+            for (Integer it : iter) {
+                assertThat(it, greaterThanOrEqualTo(0));
+                ++counter;
+                if (counter == 10) {
+                    iter.close();
+                }
+            }
+            assertEquals(10, counter);
+            assertFalse(iter.hasNext());
+        }
+    }
+
+
+    @Test
+    void testYieldReturnFromForeground() {
+        try (EmptyGenerator iter = new EmptyGenerator()) {
+            assertThrows(InterruptedException.class, () -> iter.yieldReturn("one"));
+        }
+    }
+
+}
@@ -0,0 +1,134 @@
+package ca.taylorsoftware.javagenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * @author Warren Taylor
+ * Created: 2026-10-19
+ * Copyright (c) 2026 Warren Taylor.  All right reserved.
+ */
+class RecyclingGeneratorTest {
+
+    private static class Event {
+        long value;
+    }
+
+
+    //-------------------------------------------------------------------------
+    private static class CountingGenerator extends RecyclingGenerator<Event> {
+        private final long count;
+
+        CountingGenerator(int ringSize, long count) {
+            super(ringSize, Event::new);
+            this.count = count;
+        }
+
+        @Override
+        protected void generator() throws InterruptedException {
+            for (long value = 1; value <= count; ++value) {
+                Event event = claim();
+                event.value = value;
+                publish();
+            }
+        }
+    }
+
+
+    @Test
+    void testSlotsAreRecycled() {
+        for (int ringSize : new int[] {1, 2, 16}) {
+            Set<Event> seen = Collections.newSetFromMap(new IdentityHashMap<Event, Boolean>());
+            long expected = 0;
+
+            try (CountingGenerator iter = new CountingGenerator(ringSize, 10000)) {
+                for (Event event : iter) {
+                    assertEquals(++expected, event.value);
+                    seen.add(event);
+                }
+            }
+
+            assertEquals(10000, expected);
+            assertEquals(ringSize, seen.size());
+        }
+    }
+
+
+    @Test
+    void testSlotIsNotReusedWhileHeld() throws InterruptedException {
+        try (CountingGenerator iter = new CountingGenerator(2, 100)) {
+            long expected = 0;
+            for (Event event : iter) {
+                long value = event.value;
+                assertEquals(++expected, value);
+                // Give the background thread every chance to overwrite the slot.
+                Thread.sleep(1);
+                assertEquals(value, event.value);
+            }
+        }
+    }
+
+
+    @Test
+    void testEmptyGenerator() {
+        try (CountingGenerator iter = new CountingGenerator(4, 0)) {
+            assertFalse(iter.iterator().hasNext());
+        }
+    }
+
+
+    @Test
+    void testPrematureClose() {
+        try (CountingGenerator iter = new CountingGenerator(4, Long.MAX_VALUE)) {
+            int counter = 0;
+            for (Event event : iter) {
+                assertEquals(++counter, event.value);
+                if (counter == 100) {
+                    iter.close();
+                }
+            }
+            assertEquals(100, counter);
+        }
+    }
+
+
+    //-------------------------------------------------------------------------
+    private static class DoubleClaimGenerator extends RecyclingGenerator<Event> {
+        volatile Throwable failure;
+
+        DoubleClaimGenerator() {
+            super(4, Event::new);
+        }
+
+        @Override
+        protected void generator() throws InterruptedException {
+            claim();
+            try {
+                claim();
+            } catch (IllegalStateException ex) {
+                failure = ex;
+            }
+        }
+    }
+
+    @Test
+    void testClaimTwice() {
+        try (DoubleClaimGenerator iter = new DoubleClaimGenerator()) {
+            assertFalse(iter.iterator().hasNext());
+            assertTrue(iter.failure instanceof IllegalStateException);
+        }
+    }
+
+
+    @Test
+    void testInvalidRingSize() {
+        assertThrows(IllegalArgumentException.class, () -> new CountingGenerator(0, 1));
+    }
+
+}
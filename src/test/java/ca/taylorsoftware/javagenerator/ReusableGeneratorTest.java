@@ -0,0 +1,131 @@
+package ca.taylorsoftware.javagenerator;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * @author Warren Taylor
+ * Created: 2026-10-19
+ * Copyright (c) 2026 Warren Taylor.  All right reserved.
+ */
+class ReusableGeneratorTest {
+
+    //-------------------------------------------------------------------------
+    private static class CountToGenerator extends ReusableGenerator<Integer, Integer> {
+        final Set<Thread> threads = Collections.newSetFromMap(new ConcurrentHashMap<Thread, Boolean>());
+
+        CountToGenerator(int maxQueueSize) {
+            super(maxQueueSize);
+        }
+
+        @Override
+        protected void generator(Integer input) throws InterruptedException {
+            threads.add(Thread.currentThread());
+            for (int counter = 1; counter <= input; ++counter) {
+                yieldReturn(counter);
+            }
+        }
+    }
+
+
+    private static List<Integer> collect(Iterable<Integer> iterable) {
+        List<Integer> result = new ArrayList<>();
+        for (Integer it : iterable) {
+            result.add(it);
+        }
+        return result;
+    }
+
+
+    @Test
+    void testSessionsReuseTheBackgroundThread() {
+        try (CountToGenerator generator = new CountToGenerator(4)) {
+            for (int input = 0; input < 10; ++input) {
+                try (ReusableGenerator<Integer, Integer>.Session session = generator.open(input)) {
+                    assertEquals(input, collect(session).size());
+                }
+            }
+            assertEquals(1, generator.threads.size());
+        }
+    }
+
+
+    @Test
+    void testSimpleSession() {
+        try (CountToGenerator generator = new CountToGenerator(1)) {
+            try (ReusableGenerator<Integer, Integer>.Session session = generator.open(3)) {
+                assertIterableEquals(Arrays.asList(1, 2, 3), session);
+            }
+            try (ReusableGenerator<Integer, Integer>.Session session = generator.open(2)) {
+                assertThat(session, contains(1, 2));
+            }
+        }
+    }
+
+
+    @Test
+    void testPrematureSessionClose() {
+        try (CountToGenerator generator = new CountToGenerator(8)) {
+            try (ReusableGenerator<Integer, Integer>.Session session = generator.open(1000000)) {
+                assertTrue(session.hasNext());
+                assertEquals(1, session.next());
+                assertTrue(session.hasNext());
+                assertEquals(2, session.next());
+            }
+
+            // Nothing from the cancelled session may leak into the next one.
+            try (ReusableGenerator<Integer, Integer>.Session session = generator.open(3)) {
+                assertIterableEquals(Arrays.asList(1, 2, 3), session);
+            }
+        }
+    }
+
+
+    @Test
+    void testClosedSessionHasNoMoreElements() {
+        try (CountToGenerator generator = new CountToGenerator(8)) {
+            ReusableGenerator<Integer, Integer>.Session session = generator.open(5);
+            assertTrue(session.hasNext());
+            session.close();
+            assertFalse(session.hasNext());
+        }
+    }
+
+
+    @Test
+    void testOnlyOneOpenSession() {
+        try (CountToGenerator generator = new CountToGenerator(1)) {
+            try (ReusableGenerator<Integer, Integer>.Session session = generator.open(3)) {
+                assertThrows(IllegalStateException.class, () -> generator.open(3));
+                // The refused open leaves the open session as it was.
+                assertEquals(Arrays.asList(1, 2, 3), collect(session));
+            }
+        }
+    }
+
+
+    @Test
+    void testOpenAfterClose() {
+        CountToGenerator generator = new CountToGenerator(1);
+        generator.close();
+        assertThrows(IllegalStateException.class, () -> generator.open(3));
+    }
+
+
+    @Test
+    void testInvalidMaxQueueSize() {
+        assertThrows(IllegalArgumentException.class, () -> new CountToGenerator(0));
+    }
+
+}
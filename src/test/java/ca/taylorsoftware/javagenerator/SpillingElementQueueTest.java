@@ -0,0 +1,153 @@
+package ca.taylorsoftware.javagenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+
+/**
+ * @author Warren Taylor
+ * Created: 2026-10-19
+ * Copyright (c) 2026 Warren Taylor.  All right reserved.
+ */
+class SpillingElementQueueTest {
+
+    @TempDir
+    Path dir;
+
+    private static final Serializer<Integer> INTEGERS = new Serializer<Integer>() {
+        @Override
+        public void serialize(Integer item, DataOutput out) throws IOException {
+            out.writeInt(item);
+        }
+
+        @Override
+        public Integer deserialize(DataInput in) throws IOException {
+            return in.readInt();
+        }
+    };
+
+
+    private long spillFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.count();
+        }
+    }
+
+
+    @Test
+    void testOrderIsPreserved() throws IOException {
+        // Tiny segments so that many segment files come and go.
+        SpillingElementQueue<Integer> queue = new SpillingElementQueue<>(5, INTEGERS, dir, 16);
+        int added = 0;
+        int removed = 0;
+
+        for (int round = 0; round < 200; ++round) {
+            for (int count = 0; count < round % 11 + 1; ++count) {
+                queue.addLast(added++);
+            }
+            for (int count = 0; count < round % 7 + 1 && !queue.isEmpty(); ++count) {
+                assertEquals(removed++, queue.removeFirst());
+            }
+            assertEquals(added - removed, queue.size());
+            assertFalse(queue.isFull(1));
+        }
+
+        while (!queue.isEmpty()) {
+            assertEquals(removed++, queue.removeFirst());
+        }
+        assertEquals(added, removed);
+        assertEquals(0, spillFiles());
+        assertThrows(NoSuchElementException.class, () -> queue.removeFirst());
+    }
+
+
+    @Test
+    void testSegmentsDeletedAsConsumed() throws IOException {
+        SpillingElementQueue<Integer> queue = new SpillingElementQueue<>(2, INTEGERS, dir, 16);
+        for (int count = 0; count < 22; ++count) {
+            queue.addLast(count);
+        }
+        // 2 in memory then 20 spilled, 4 per 16 byte segment.
+        assertEquals(20, queue.spilledSize());
+        assertEquals(5, spillFiles());
+
+        for (int count = 0; count < 10; ++count) {
+            assertEquals(count, queue.removeFirst());
+        }
+        assertEquals(3, spillFiles());
+    }
+
+
+    @Test
+    void testClearDeletesSegments() throws IOException {
+        SpillingElementQueue<Integer> queue = new SpillingElementQueue<>(1, INTEGERS, dir, 16);
+        for (int count = 0; count < 100; ++count) {
+            queue.addLast(count);
+        }
+        assertTrue(spillFiles() > 0);
+
+        queue.clear();
+        assertTrue(queue.isEmpty());
+        assertEquals(0, spillFiles());
+    }
+
+
+    @Test
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new SpillingElementQueue<>(0, INTEGERS, dir));
+        assertThrows(IllegalArgumentException.class, () -> new SpillingElementQueue<Integer>(1, null, dir));
+    }
+
+
+
+    //-------------------------------------------------------------------------
+    private static class CountingGenerator extends ThreadedGenerator<Integer> {
+        private static final int COUNT = 100000;
+        private static final CountDownLatch finished = new CountDownLatch(1);
+
+        CountingGenerator(Path spillDirectory) {
+            super(100, INTEGERS, spillDirectory);
+        }
+
+        @Override
+        protected void generator() throws InterruptedException {
+            for (int count = 0; count < COUNT; ++count) {
+                yieldReturn(count);
+            }
+            finished.countDown();
+        }
+    }
+
+    @Test
+    void testProducerNeverWaits() throws InterruptedException, IOException {
+        try (CountingGenerator iter = new CountingGenerator(dir)) {
+            // The background thread finishes without anything being consumed.
+            assertTrue(CountingGenerator.finished.await(30, TimeUnit.SECONDS));
+            assertTrue(spillFiles() > 0);
+
+            int expected = 0;
+            for (int item : iter) {
+                assertEquals(expected++, item);
+                if (expected == 1000) {
+                    iter.close();
+                }
+            }
+            assertEquals(1000, expected);
+        }
+        // 'close()' deleted what had not been consumed.
+        assertEquals(0, spillFiles());
+    }
+
+}
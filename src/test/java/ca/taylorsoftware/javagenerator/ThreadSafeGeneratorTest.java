@@ -222,4 +222,62 @@ class ThreadSafeGeneratorTest {
         }
     }
 
+
+
+    //-------------------------------------------------------------------------
+    private static class PagingGenerator extends ThreadSafeGenerator<Integer> {
+        private final boolean isFastForward;
+        volatile int computed = 0;
+
+        PagingGenerator(boolean isFastForward) {
+            this.isFastForward = isFastForward;
+        }
+
+        @Override
+        protected void generator() throws InterruptedException {
+            for (int value = 1; value <= 1000; ++value) {
+                long skip = pendingSkip();
+                if (isFastForward && skip > 0) {
+                    long count = Math.min(skip, 1001 - value);
+                    value += (int) count;
+                    skipped(count);
+                    if (value > 1000) {
+                        break;
+                    }
+                }
+                ++computed;
+                yieldReturn(value);
+            }
+        }
+    }
+
+    @Test
+    void testSkip() {
+        for (boolean isFastForward : new boolean[] {false, true}) {
+            try (PagingGenerator iter = new PagingGenerator(isFastForward)) {
+                iter.skip(500);
+                List<Integer> page = new ArrayList<>();
+                for (Integer it : iter) {
+                    page.add(it);
+                    if (page.size() == 3) {
+                        break;
+                    }
+                }
+                assertEquals(Arrays.asList(501, 502, 503), page);
+                assertEquals(isFastForward ? 3 : 503, iter.computed);
+
+                iter.skip(400);
+                assertTrue(iter.hasNext());
+                assertEquals(904, iter.next());
+
+                iter.skip(1000);
+                assertFalse(iter.hasNext());
+            }
+        }
+
+        try (PagingGenerator iter = new PagingGenerator(false)) {
+            assertThrows(IllegalArgumentException.class, () -> iter.skip(-1));
+        }
+    }
+
 }
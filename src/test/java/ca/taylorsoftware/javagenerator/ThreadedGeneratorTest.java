@@ -247,4 +247,96 @@ class ThreadedGeneratorTest {
         });
     }
 
+
+
+    //-------------------------------------------------------------------------
+    private static class PagingGenerator extends ThreadedGenerator<Integer> {
+        private final boolean isFastForward;
+
+        PagingGenerator(int maxQueueSize, boolean isFastForward) {
+            super(null, maxQueueSize, true);
+            this.isFastForward = isFastForward;
+            start();
+        }
+
+        @Override
+        protected void generator() throws InterruptedException {
+            for (int value = 1; value <= 1000; ++value) {
+                long skip = pendingSkip();
+                if (isFastForward && skip > 0) {
+                    long count = Math.min(skip, 1001 - value);
+                    value += (int) count;
+                    skipped(count);
+                    if (value > 1000) {
+                        break;
+                    }
+                }
+                yieldReturn(value);
+            }
+        }
+    }
+
+    @Test
+    void testSkip() {
+        for (int maxQueueSize : new int[] {1, 10, 2000}) {
+            for (boolean isFastForward : new boolean[] {false, true}) {
+                try (PagingGenerator iter = new PagingGenerator(maxQueueSize, isFastForward)) {
+                    iter.skip(500);
+                    assertTrue(iter.hasNext());
+                    assertEquals(501, iter.next());
+                    assertTrue(iter.hasNext());
+                    assertEquals(502, iter.next());
+
+                    iter.skip(400);
+                    assertTrue(iter.hasNext());
+                    assertEquals(903, iter.next());
+
+                    iter.skip(1000);
+                    assertFalse(iter.hasNext());
+                }
+            }
+        }
+
+        try (PagingGenerator iter = new PagingGenerator(1, false)) {
+            assertThrows(IllegalArgumentException.class, () -> iter.skip(-1));
+        }
+    }
+
+
+
+    //-------------------------------------------------------------------------
+    private static class SlowConsumerGenerator extends ThreadedGenerator<Integer> {
+        SlowConsumerGenerator() {
+            super(null, 5, true);
+            enableTracing();
+            start();
+        }
+
+        @Override
+        protected void generator() throws InterruptedException {
+            for (int value = 1; value <= 20; ++value) {
+                yieldReturn(value);
+            }
+        }
+    }
+
+    @Test
+    void testTracing() throws InterruptedException {
+        try (SlowConsumerGenerator iter = new SlowConsumerGenerator()) {
+            for (Integer it : iter) {
+                Thread.sleep(2);
+            }
+
+            LatencyHistogram latency = iter.getYieldToNextLatency();
+            // Every element waited behind a full queue of slow consumption.
+            assertEquals(20, latency.getCount());
+            assertTrue(latency.getPercentile(50) >= 2_000_000);
+            assertEquals(19, iter.getInterArrivalTime().getCount());
+        }
+
+        try (EmptyGenerator iter = new EmptyGenerator()) {
+            assertNull(iter.getYieldToNextLatency());
+        }
+    }
+
 }